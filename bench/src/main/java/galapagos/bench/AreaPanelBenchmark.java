@@ -0,0 +1,73 @@
+package galapagos.bench;
+
+import galapagos.Galapagos;
+import galapagos.biotope.*;
+import galapagos.ui.AreaPanel;
+import java.awt.Color;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Measures drawing a snapshot of a Biotope into the image of an
+ * AreaPanel after each round, either only the places changed by the
+ * round, or the whole world, as when the panel was given a new world. The panel is
+ * never shown, so the benchmark runs headless.
+ *
+ * A round is run before each iteration rather than each invocation,
+ * as it takes far longer than drawing it. Drawing does not change the
+ * snapshot, so every invocation draws the same changes, as many as a
+ * round makes. Drawing the whole world includes giving the panel the
+ * new world, as that is part of its cost.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class AreaPanelBenchmark {
+    @Param({"100", "500"})
+    int size;
+
+    @Param({"1", "4"})
+    int pixelSize;
+
+    @Param({"changes", "all"})
+    String drawing;
+
+    Biotope biotope;
+    AreaPanel panel;
+    BiotopeSnapshot snapshot;
+
+    @Setup
+    public void setUp() {
+        Map<Behavior, Color> colors = Galapagos.behaviors();
+        List<Behavior> behaviors = DefaultBehaviors.list();
+        biotope = new Biotope(size, size, 1.0 / 3.0, 12, 7, 3, 10, 13,
+                              size * size / (3 * behaviors.size()), behaviors,
+                              new SerialRoundEngine(), 42);
+        panel = new AreaPanel(colors);
+        panel.changeWorld(size, size);
+        panel.setBounds(0, 0, size * pixelSize, size * pixelSize);
+        biotope.addListener(new BiotopeListener() {
+                public void biotopeChanged(BiotopeSnapshot snapshot) {
+                    AreaPanelBenchmark.this.snapshot = snapshot;
+                }
+            });
+        biotope.notifyListeners();
+        panel.drawBiotope(snapshot);
+    }
+
+    @Setup(Level.Iteration)
+    public void runRound() {
+        biotope.runRound();
+    }
+
+    @Benchmark
+    public void drawBiotope() {
+        if (drawing.equals("all"))
+            panel.changeWorld(size, size);
+        panel.drawBiotope(snapshot);
+    }
+}
@@ -0,0 +1,83 @@
+package galapagos.bench;
+
+import galapagos.biotope.*;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures the decide and response methods of each behavior of the
+ * application, against a population of opponents of all behaviors.
+ * Behaviors with memory are measured with every opponent already
+ * remembered, as they are once a simulation has run for a while.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BehaviorBenchmark {
+    /**
+     * The number of different opponents a behavior meets.
+     */
+    private static final int OPPONENTS = 256;
+
+    @Param({"Samaritan", "Cheater", "Flip-Flopper", "Random", "Grudger",
+            "Lenient Grudger", "Tit for Tat", "Inverse Tit for Tat",
+            "Probing Tit for Tat", "Suspicious Tit for Tat", "Predictor",
+            "Analyzer", "Statistical", "Self-Centric", "Friendly Self-Centric",
+            "Cheating Tit for Tat", "Analyzing Combo"})
+    String behaviorName;
+
+    Behavior behavior;
+    Finch[] opponents;
+    Action[] actions;
+    SplittableRandom random;
+    int next;
+
+    @Setup
+    public void setUp() {
+        List<Behavior> types = DefaultBehaviors.list();
+        for (Behavior type : types)
+            if (type.toString().equals(behaviorName))
+                behavior = type.clone();
+        if (behavior == null)
+            throw new IllegalArgumentException("Unknown behavior " + behaviorName);
+
+        random = new SplittableRandom(42);
+        opponents = new Finch[OPPONENTS];
+        actions = new Action[OPPONENTS];
+        for (int i = 0; i < OPPONENTS; i++) {
+            Behavior type = types.get(random.nextInt(types.size()));
+            opponents[i] = new GalapagosFinch(10, 10, 100, type.clone());
+            actions[i] = random.nextBoolean() ? Action.CLEANING : Action.IGNORING;
+            behavior.response(opponents[i], actions[i]);
+        }
+    }
+
+    @Benchmark
+    public Action decide() {
+        Finch opponent = opponents[next++ & (OPPONENTS - 1)];
+        if (behavior instanceof RandomBehavior)
+            return ((RandomBehavior) behavior).decide(opponent, random);
+        return behavior.decide(opponent);
+    }
+
+    @Benchmark
+    public void response() {
+        int i = next++ & (OPPONENTS - 1);
+        behavior.response(opponents[i], actions[i]);
+    }
+
+    @Benchmark
+    public void meeting(Blackhole blackhole) {
+        int i = next++ & (OPPONENTS - 1);
+        Action action = behavior instanceof RandomBehavior
+            ? ((RandomBehavior) behavior).decide(opponents[i], random)
+            : behavior.decide(opponents[i]);
+        blackhole.consume(action);
+        behavior.response(opponents[i], actions[i]);
+    }
+}
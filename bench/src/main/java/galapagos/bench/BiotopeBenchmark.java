@@ -0,0 +1,62 @@
+package galapagos.bench;
+
+import galapagos.biotope.*;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Measures Biotope.runRound() with all the behaviors of the
+ * application, at several world sizes and initial population
+ * densities, run by the serial and the tiled round engine, with the
+ * greedy and the matching meeting scheduler.
+ *
+ * The Biotope is created once per trial and keeps evolving, so the
+ * measurement is of a simulation that has settled down after the
+ * warmup rounds, as it is when the application runs.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BiotopeBenchmark {
+    @Param({"50", "200", "500"})
+    int size;
+
+    @Param({"0.1", "0.5"})
+    double density;
+
+    @Param({"serial", "tiled"})
+    String engine;
+
+    @Param({"greedy", "matching"})
+    String scheduler;
+
+    Biotope biotope;
+
+    @Setup
+    public void setUp() {
+        List<Behavior> behaviors = DefaultBehaviors.list();
+        int finchesPerBehavior = (int) (density * size * size / behaviors.size());
+        MeetingScheduler meetingScheduler = scheduler.equals("matching")
+            ? new MatchingMeetingScheduler() : null;
+        RoundEngine roundEngine;
+        if (engine.equals("tiled"))
+            roundEngine = new TiledRoundEngine(ForkJoinPool.commonPool(), 16, meetingScheduler);
+        else if (meetingScheduler != null)
+            roundEngine = new SerialRoundEngine(meetingScheduler);
+        else
+            roundEngine = new SerialRoundEngine();
+        biotope = new Biotope(size, size, 1.0 / 3.0, 12, 7, 3, 10, 13,
+                              finchesPerBehavior, behaviors, roundEngine, 42);
+    }
+
+    @Benchmark
+    public int runRound() {
+        biotope.runRound();
+        return biotope.round();
+    }
+}
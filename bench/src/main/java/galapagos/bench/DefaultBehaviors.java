@@ -0,0 +1,24 @@
+package galapagos.bench;
+
+import galapagos.Galapagos;
+import galapagos.biotope.Behavior;
+import java.util.*;
+
+/**
+ * The behaviors of the application in a fixed order, so that seeded
+ * benchmarks always see the same behavior ids.
+ */
+class DefaultBehaviors {
+    /**
+     * Return the behaviors of the application sorted by name.
+     */
+    static List<Behavior> list() {
+        List<Behavior> behaviors = new ArrayList<Behavior>(Galapagos.behaviors().keySet());
+        Collections.sort(behaviors, new Comparator<Behavior>() {
+                public int compare(Behavior b1, Behavior b2) {
+                    return b1.toString().compareTo(b2.toString());
+                }
+            });
+        return behaviors;
+    }
+}
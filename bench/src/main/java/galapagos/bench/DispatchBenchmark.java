@@ -0,0 +1,72 @@
+package galapagos.bench;
+
+import galapagos.biotope.*;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Compares the ways of letting the finches of a meeting batch decide:
+ * calling decide on every behavior, as the Biotope used to, which is
+ * a call site seeing all the behavior classes of the application, and
+ * switching on the strategy of the StrategyBehaviors first, as the
+ * Biotope does now, so that only the remaining behaviors are called.
+ * Both go through the StrategyDispatch the Biotope uses.
+ *
+ * The finches are drawn from all behaviors, or from the
+ * StrategyBehaviors only, as in a world they have taken over.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DispatchBenchmark {
+    private static final int FINCHES = 4096;
+
+    @Param({"all", "strategies"})
+    String population;
+
+    Behavior[] behaviors;
+    byte[] strategies;
+    Finch[] opponents;
+    SplittableRandom random;
+
+    @Setup
+    public void setUp() {
+        List<Behavior> types = new ArrayList<Behavior>();
+        for (Behavior type : DefaultBehaviors.list())
+            if (population.equals("all") || type instanceof StrategyBehavior)
+                types.add(type);
+
+        random = new SplittableRandom(42);
+        behaviors = new Behavior[FINCHES];
+        strategies = new byte[FINCHES];
+        opponents = new Finch[FINCHES];
+        for (int i = 0; i < FINCHES; i++) {
+            Behavior type = types.get(random.nextInt(types.size()));
+            behaviors[i] = type.clone();
+            strategies[i] = StrategyDispatch.strategy(type);
+            opponents[i] = new GalapagosFinch(10, 10, 100, type.clone());
+        }
+    }
+
+    @Benchmark
+    public int virtualDispatch() {
+        int cleanings = 0;
+        for (int i = 0; i < FINCHES; i++)
+            if (StrategyDispatch.decide(behaviors[i], opponents[i], random) == Action.CLEANING)
+                cleanings++;
+        return cleanings;
+    }
+
+    @Benchmark
+    public int strategySwitch() {
+        int cleanings = 0;
+        for (int i = 0; i < FINCHES; i++)
+            if (StrategyDispatch.decide(strategies[i], behaviors[i], opponents[i], random) == 0)
+                cleanings++;
+        return cleanings;
+    }
+}
@@ -0,0 +1,74 @@
+package galapagos.bench;
+
+import galapagos.biotope.*;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Compares ways of finding the indices of the eight neighbours of
+ * every place of a world: wrapping the coordinates with the recursive
+ * modulo wrap World used to have, wrapping them with Torus.wrap, and
+ * looking them up in the column and row tables of a Torus.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NeighbourScanBenchmark {
+    @Param({"100", "500"})
+    int size;
+
+    Torus torus;
+    int[] neighbours = new int[Torus.NEIGHBOURS];
+
+    @Setup
+    public void setUp() {
+        torus = new Torus(size, size);
+    }
+
+    /**
+     * The wrap of World before Torus was introduced.
+     */
+    private static int recursiveWrap(int max, int value) {
+        if (value < 0) return recursiveWrap(max, max + value);
+        else return value % max;
+    }
+
+    @Benchmark
+    public int recursiveWrapScan() {
+        int sum = 0;
+        for (int x = 0; x < size; x++)
+            for (int y = 0; y < size; y++)
+                for (int dx = -1; dx <= 1; dx++)
+                    for (int dy = -1; dy <= 1; dy++)
+                        if (dx != 0 || dy != 0)
+                            sum += recursiveWrap(size, x + dx) * size
+                                + recursiveWrap(size, y + dy);
+        return sum;
+    }
+
+    @Benchmark
+    public int torusWrapScan() {
+        int sum = 0;
+        for (int x = 0; x < size; x++)
+            for (int y = 0; y < size; y++)
+                for (int dx = -1; dx <= 1; dx++)
+                    for (int dy = -1; dy <= 1; dy++)
+                        if (dx != 0 || dy != 0)
+                            sum += torus.wrappedIndex(x + dx, y + dy);
+        return sum;
+    }
+
+    @Benchmark
+    public int torusTableScan() {
+        int sum = 0;
+        for (int index = 0; index < size * size; index++) {
+            torus.neighbours(index, neighbours);
+            for (int k = 0; k < Torus.NEIGHBOURS; k++)
+                sum += neighbours[k];
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,47 @@
+package galapagos.bench;
+
+import galapagos.biotope.*;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Measures Biotope.runRound() for a world where a single behavior
+ * with memory meets Cheaters and Samaritans, so that the cost of its
+ * memory can be compared with that of other behaviors, such as the
+ * Predictor with the Tit for Tat.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PopulationBenchmark {
+    @Param({"Tit for Tat", "Predictor", "Grudger", "Analyzer", "Statistical"})
+    String behaviorName;
+
+    Biotope biotope;
+
+    @Setup
+    public void setUp() {
+        List<Behavior> behaviors = new ArrayList<Behavior>();
+        for (Behavior type : DefaultBehaviors.list())
+            if (type.toString().equals(behaviorName)
+                || type.toString().equals("Cheater")
+                || type.toString().equals("Samaritan"))
+                behaviors.add(type);
+        if (behaviors.size() != 3)
+            throw new IllegalArgumentException("Unknown behavior " + behaviorName);
+
+        biotope = new Biotope(200, 200, 1.0 / 3.0, 12, 7, 3, 10, 13,
+                              200 * 200 / 2 / behaviors.size(), behaviors,
+                              new SerialRoundEngine(), 42);
+    }
+
+    @Benchmark
+    public int runRound() {
+        biotope.runRound();
+        return biotope.round();
+    }
+}
@@ -0,0 +1,67 @@
+package galapagos.bench;
+
+import galapagos.biotope.*;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures traversing a world in random order, and finding the
+ * filled neighbours of every place, both through the Place lists and
+ * through the buffer-based World methods.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WorldBenchmark {
+    @Param({"100", "500"})
+    int size;
+
+    @Param({"0.1", "0.5"})
+    double density;
+
+    World<Integer> world;
+    SplittableRandom random;
+    int[] buffer;
+
+    @Setup
+    public void setUp() {
+        random = new SplittableRandom(42);
+        world = new World<Integer>(size, size, new SplittableRandom(43));
+        for (int x = 0; x < size; x++)
+            for (int y = 0; y < size; y++)
+                if (random.nextDouble() < density)
+                    world.setAt(x, y, x + y);
+        buffer = new int[World.NEIGHBOURS];
+    }
+
+    @Benchmark
+    public void randomIterator(Blackhole blackhole) {
+        for (Iterator<World<Integer>.Place> i = world.randomIterator(); i.hasNext(); )
+            blackhole.consume(i.next().getElement());
+    }
+
+    @Benchmark
+    public void randomOrder(Blackhole blackhole) {
+        for (int index : world.randomOrder())
+            blackhole.consume(world.isOccupied(index));
+    }
+
+    @Benchmark
+    public void filledNeighbourLists(Blackhole blackhole) {
+        for (World<Integer>.Place place : world)
+            blackhole.consume(place.filledNeighbours());
+    }
+
+    @Benchmark
+    public int filledNeighbourBuffer() {
+        int sum = 0;
+        for (int index = 0; index < world.size(); index++)
+            sum += world.filledNeighbours(index, buffer, random);
+        return sum;
+    }
+}
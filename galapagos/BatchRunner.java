@@ -0,0 +1,351 @@
+package galapagos;
+
+import galapagos.biotope.*;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Runs a Galapagos simulation without a user interface, as fast as
+ * possible, for a given number of rounds. The Biotope is configured
+ * with the same parameters as in the BiotopeCreator, given as
+ * {@code name=value} arguments on the command line or as a
+ * properties file named by the {@code config} argument. Arguments on
+ * the command line override the values of the file.
+ *
+ * The statistics of every round can be written to a file as comma
+ * separated values, and the speed of the simulation is printed when
+ * it is done.
+ */
+public class BatchRunner {
+    private static final String USAGE =
+        "Usage: java galapagos.BatchRunner [name=value ...]\n" +
+        "\n" +
+        "  config=FILE                   read name=value pairs from a properties file\n" +
+        "  width=100 height=100          size of the world\n" +
+        "  breedingProbability=0.333     chance each finch has of breeding each round\n" +
+        "  maxHitpoints=12               most hit points a finch can have\n" +
+        "  initialHitpoints=7            hit points of a new finch\n" +
+        "  hitpointsPerRound=3           hit points a finch loses each round\n" +
+        "  minMaxAge=10 maxMaxAge=13     bounds on the age a finch can reach\n" +
+        "  finchesPerBehavior=40         initial number of finches of each behavior\n" +
+        "  payoffs=3,0,5,1               hit points for cleaning and being cleaned,\n" +
+        "                                cleaning and being ignored, ignoring and being\n" +
+        "                                cleaned, ignoring and being ignored\n" +
+        "  behaviors=NAME,NAME,...       behaviors to use (default: all)\n" +
+        "  rounds=1000                   number of rounds to run\n" +
+        "  seed=N                        seed of the simulation (default: random)\n" +
+        "  engine=serial                 round engine, serial or tiled\n" +
+        "  scheduler=greedy              meeting scheduler, greedy or matching\n" +
+        "  threads=N                     threads of the tiled engine and the matching\n" +
+        "                                scheduler (default: all cores)\n" +
+        "  tileSize=16                   minimum tile size of the tiled engine\n" +
+        "  statistics=FILE               write the statistics of every round to FILE\n" +
+        "  memory.NAME=N[,EVICTION]      let finches of behavior NAME remember at most N\n" +
+        "                                finches, forgetting by EVICTION: lru (default),\n" +
+        "                                lfu or oldest";
+
+    private final Properties properties;
+
+    /**
+     * Create a BatchRunner for the provided configuration.
+     */
+    public BatchRunner(Properties properties) {
+        this.properties = properties;
+    }
+
+    /**
+     * Run the simulation described by the arguments.
+     *
+     * @param args name=value pairs, see USAGE.
+     */
+    public static void main(String[] args) {
+        try {
+            new BatchRunner(parseArguments(args)).run(System.out);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println();
+            System.err.println(USAGE);
+            System.exit(1);
+        } catch (IOException e) {
+            System.err.println(e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Collect the configuration from the arguments, reading the
+     * properties file given by the config argument, if any.
+     *
+     * @throws IllegalArgumentException if an argument is not of the
+     * form name=value.
+     * @throws IOException if the properties file can't be read.
+     */
+    public static Properties parseArguments(String[] args) throws IOException {
+        Properties arguments = new Properties();
+        for (String arg : args) {
+            int split = arg.indexOf('=');
+            if (split <= 0)
+                throw new IllegalArgumentException("Not a name=value pair: " + arg);
+            arguments.setProperty(arg.substring(0, split), arg.substring(split + 1));
+        }
+
+        Properties properties = new Properties();
+        String config = arguments.getProperty("config");
+        if (config != null) {
+            InputStream in = new FileInputStream(config);
+            try {
+                properties.load(in);
+            } finally {
+                in.close();
+            }
+        }
+        properties.putAll(arguments);
+        return properties;
+    }
+
+    /**
+     * Create the Biotope described by the configuration.
+     *
+     * @throws IllegalArgumentException if the configuration isn't
+     * valid.
+     */
+    public Biotope createBiotope() {
+        int width = intValue("width", 100);
+        int height = intValue("height", 100);
+        double breedingProbability = doubleValue("breedingProbability", 1.0 / 3.0);
+        int maxHitpoints = intValue("maxHitpoints", 12);
+        int initialHitpoints = intValue("initialHitpoints", 7);
+        int hitpointsPerRound = intValue("hitpointsPerRound", 3);
+        int minMaxAge = intValue("minMaxAge", 10);
+        int maxMaxAge = intValue("maxMaxAge", 13);
+        int finchesPerBehavior = intValue("finchesPerBehavior", 40);
+        List<Behavior> behaviors = behaviors();
+
+        // The same checks as in the BiotopeCreator.
+        check(0 < width && 0 < height, "The world must have places.");
+        check(0.0 <= breedingProbability && breedingProbability <= 1.0,
+              "The breeding probability must be between 0 and 1.");
+        check(width * height >= finchesPerBehavior * behaviors.size(),
+              "There is not enough room in the world for the initial amount of finches.");
+        check(0 < minMaxAge && minMaxAge <= maxMaxAge,
+              "The greatest maximum age must be at least as large as the least maximum age.");
+        check(0 < initialHitpoints && initialHitpoints <= maxHitpoints,
+              "The initial amount of hitpoints may at most be the maximum amount of hitpoints.");
+        check(0 <= hitpointsPerRound && 0 <= finchesPerBehavior,
+              "Hit points per round and finches per behavior can't be negative.");
+
+        String seed = properties.getProperty("seed");
+        Biotope biotope =
+            new Biotope(width, height, breedingProbability, maxHitpoints,
+                        initialHitpoints, hitpointsPerRound, minMaxAge, maxMaxAge,
+                        finchesPerBehavior, behaviors, engine(),
+                        seed == null ? new SplittableRandom().nextLong() : longValue("seed"));
+        setPayoffs(biotope);
+        for (Behavior behavior : behaviors) {
+            MemoryLimit limit = memoryLimit(behavior);
+            if (limit != null)
+                biotope.setMemoryLimit(behavior, limit);
+        }
+        return biotope;
+    }
+
+    /**
+     * Run the configured number of rounds of the configured Biotope,
+     * writing statistics to the statistics file if one is configured,
+     * and print a summary of the run.
+     *
+     * @param out Where to print the summary.
+     * @throws IOException if the statistics can't be written.
+     */
+    public void run(PrintStream out) throws IOException {
+        Biotope biotope = createBiotope();
+        int rounds = intValue("rounds", 1000);
+        String statisticsFile = properties.getProperty("statistics");
+
+        Writer statistics = null;
+        if (statisticsFile != null) {
+            statistics = new BufferedWriter(new FileWriter(statisticsFile));
+            writeHeader(statistics);
+        }
+        try {
+            long start = System.nanoTime();
+            for (int i = 0; i < rounds; i++) {
+                biotope.runRound();
+                if (statistics != null)
+                    writeRound(statistics, biotope);
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+
+            out.println("Seed: " + biotope.seed());
+            out.println("Rounds: " + rounds + " in " + String.format("%.3f", seconds) + " s");
+            out.println("Rounds/sec: " + String.format("%.1f", rounds / seconds));
+            out.println("Meetings/sec: " + String.format("%.0f", biotope.meetings() / seconds));
+        } finally {
+            if (statistics != null)
+                statistics.close();
+        }
+    }
+
+    /**
+     * Write the header line of the statistics file.
+     */
+    private static void writeHeader(Writer out) throws IOException {
+        out.write("Round,Behavior");
+        for (Statistics.StatisticsElement element : Statistics.StatisticsElement.values())
+            out.write("," + element.name);
+        out.write('\n');
+    }
+
+    /**
+     * Write a line per behavior with the statistics of the last round
+     * of the Biotope.
+     */
+    private static void writeRound(Writer out, Biotope biotope) throws IOException {
+        for (Behavior behavior : biotope.behaviors()) {
+            Statistics stat = biotope.statistics(behavior);
+            out.write(Integer.toString(biotope.round()));
+            out.write(',');
+            out.write(behavior.toString());
+            for (Statistics.StatisticsElement element : Statistics.StatisticsElement.values()) {
+                out.write(',');
+                out.write(Integer.toString(stat.getStatByElement(element)));
+            }
+            out.write('\n');
+        }
+    }
+
+    /**
+     * The behaviors named by the behaviors property, or all the
+     * behaviors of the application.
+     */
+    private List<Behavior> behaviors() {
+        Map<String, Behavior> known = new TreeMap<String, Behavior>();
+        for (Behavior behavior : Galapagos.behaviors().keySet())
+            known.put(behavior.toString(), behavior);
+
+        String names = properties.getProperty("behaviors");
+        if (names == null)
+            return new ArrayList<Behavior>(known.values());
+
+        List<Behavior> behaviors = new ArrayList<Behavior>();
+        for (String name : names.split(",")) {
+            Behavior behavior = known.get(name.trim());
+            check(behavior != null, "Unknown behavior \"" + name.trim()
+                  + "\", known behaviors are " + known.keySet());
+            if (!behaviors.contains(behavior))
+                behaviors.add(behavior);
+        }
+        return behaviors;
+    }
+
+    /**
+     * The RoundEngine named by the engine property, with the
+     * MeetingScheduler named by the scheduler property.
+     */
+    private RoundEngine engine() {
+        String engine = properties.getProperty("engine", "serial");
+        String scheduler = properties.getProperty("scheduler", "greedy");
+        check(engine.equals("serial") || engine.equals("tiled"),
+              "Unknown engine \"" + engine + "\".");
+        check(scheduler.equals("greedy") || scheduler.equals("matching"),
+              "Unknown scheduler \"" + scheduler + "\".");
+        if (engine.equals("serial") && scheduler.equals("greedy"))
+            return new SerialRoundEngine();
+
+        int threads = intValue("threads", Runtime.getRuntime().availableProcessors());
+        check(threads > 0, "The threads must be at least one.");
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        MeetingScheduler matching = null;
+        if (scheduler.equals("matching"))
+            matching = new MatchingMeetingScheduler(pool, 1024);
+        if (engine.equals("serial"))
+            return new SerialRoundEngine(matching);
+
+        int tileSize = intValue("tileSize", 16);
+        check(tileSize >= 2, "The tiled engine needs tiles at least 2 places wide.");
+        return new TiledRoundEngine(pool, tileSize, matching);
+    }
+
+    /**
+     * Set the payoffs of the Biotope given by the payoffs property,
+     * if there is one.
+     */
+    private void setPayoffs(Biotope biotope) {
+        String value = properties.getProperty("payoffs");
+        if (value == null)
+            return;
+        String[] parts = value.split(",");
+        check(parts.length == 4, "payoffs must be four integers: " + value);
+        biotope.setPayoff(Action.CLEANING, Action.CLEANING, intValue("payoffs", parts[0], 0));
+        biotope.setPayoff(Action.CLEANING, Action.IGNORING, intValue("payoffs", parts[1], 0));
+        biotope.setPayoff(Action.IGNORING, Action.CLEANING, intValue("payoffs", parts[2], 0));
+        biotope.setPayoff(Action.IGNORING, Action.IGNORING, intValue("payoffs", parts[3], 0));
+    }
+
+    /**
+     * The MemoryLimit given by the memory property of the behavior,
+     * or null if there is none.
+     */
+    private MemoryLimit memoryLimit(Behavior behavior) {
+        String name = "memory." + behavior;
+        String value = properties.getProperty(name);
+        if (value == null)
+            return null;
+        check(behavior instanceof RememberingBehavior,
+              behavior + " does not remember finches.");
+
+        String[] parts = value.split(",");
+        check(parts.length <= 2, name + " must be a capacity and an eviction: " + value);
+        int capacity = intValue(name, parts[0], 0);
+        check(capacity > 0, name + " must allow at least one finch.");
+
+        String eviction = parts.length == 2 ? parts[1].trim() : "lru";
+        if (eviction.equals("lru"))
+            return new MemoryLimit(capacity, MemoryLimit.Eviction.LEAST_RECENTLY_USED);
+        if (eviction.equals("lfu"))
+            return new MemoryLimit(capacity, MemoryLimit.Eviction.LEAST_FREQUENTLY_USED);
+        check(eviction.equals("oldest"), "Unknown eviction \"" + eviction + "\".");
+        return new MemoryLimit(capacity, MemoryLimit.Eviction.OLDEST);
+    }
+
+    private int intValue(String name, int defaultValue) {
+        return intValue(name, properties.getProperty(name), defaultValue);
+    }
+
+    private static int intValue(String name, String value, int defaultValue) {
+        if (value == null)
+            return defaultValue;
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(name + " must be an integer: " + value);
+        }
+    }
+
+    private long longValue(String name) {
+        String value = properties.getProperty(name);
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(name + " must be an integer: " + value);
+        }
+    }
+
+    private double doubleValue(String name, double defaultValue) {
+        String value = properties.getProperty(name);
+        if (value == null)
+            return defaultValue;
+        try {
+            return Double.parseDouble(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(name + " must be a number: " + value);
+        }
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition)
+            throw new IllegalArgumentException(message);
+    }
+}
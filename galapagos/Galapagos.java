@@ -19,8 +19,15 @@ public class Galapagos {
      * @param args The arguments are ignored.
      */
     public static void main(String[] args) {
-        // TODO Auto-generated method stub
-        
+        BiotopeViewer frame = new BiotopeViewer(behaviors());
+        frame.setVisible(true);
+    }
+
+    /**
+     * Return the behaviors available in the application, along with
+     * the colors they are drawn with.
+     */
+    public static Map<Behavior, Color> behaviors() {
         HashMap<Behavior, Color> behaviors = new HashMap<Behavior, Color>();
         behaviors.put(new Samaritan(), Color.RED);
         behaviors.put(new Cheater(), Color.BLUE);
@@ -46,11 +53,7 @@ public class Galapagos {
         Schizo2.add(new Analyzer());
         Schizo2.add(new Statistical());
         behaviors.put(new Schizophrenic("Analyzing Combo", Schizo2), new Color(67, 136, 201));
-        
-        
-        
-        BiotopeViewer frame = new BiotopeViewer(behaviors);
-        frame.setVisible(true);
+        return behaviors;
     }
 
 }
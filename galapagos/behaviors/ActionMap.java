@@ -0,0 +1,37 @@
+package galapagos.behaviors;
+
+import galapagos.biotope.*;
+
+/**
+ * An IdMap storing actions as single bits instead of references: a
+ * set bit for IGNORING, a clear bit for CLEANING. Whether an id has
+ * an action at all is told by the ids of the map, so one long holds
+ * the actions of 64 slots.
+ */
+public class ActionMap extends IdMap<Action> {
+    private long[] ignorings;
+
+    /**
+     * @inheritDoc
+     */
+    protected void allocateValues(int capacity) {
+        ignorings = capacity == 0 ? null : new long[(capacity + 63) >>> 6];
+    }
+
+    /**
+     * @inheritDoc
+     */
+    protected Action value(int slot) {
+        return (ignorings[slot >>> 6] & (1L << slot)) == 0 ? Action.CLEANING : Action.IGNORING;
+    }
+
+    /**
+     * @inheritDoc
+     */
+    protected void setValue(int slot, Action value) {
+        if (value == Action.IGNORING)
+            ignorings[slot >>> 6] |= 1L << slot;
+        else
+            ignorings[slot >>> 6] &= ~(1L << slot);
+    }
+}
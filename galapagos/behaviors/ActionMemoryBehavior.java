@@ -6,6 +6,7 @@ import galapagos.biotope.*;
  * This is a more concrete MemoryBehavior which only stores a single action with each remembered finch.
  * The action stored is the action we want to do to the finch next time we meet it. 
  * It has a default action which is used when nothing is remembered about the finch.
+ * The actions are kept in an ActionMap, as a single bit per finch.
  */
 public abstract class ActionMemoryBehavior extends MemoryBehavior<Action> {
 
@@ -13,7 +14,7 @@ public abstract class ActionMemoryBehavior extends MemoryBehavior<Action> {
      * The constructor for ActionMemoryBehavior.
      */
     public ActionMemoryBehavior() {
-        super();
+        super(new ActionMap());
     }
 
     /**
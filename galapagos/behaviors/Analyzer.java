@@ -4,15 +4,22 @@ import galapagos.biotope.*;
 
 /**
  * A behavior using memory and attempting to correlate actions with
- * reactions to maximize its gain.
+ * reactions to maximize its gain. It falls back on a Predictor, which
+ * it can share with a Predictor personality of a Schizophrenic.
  */
-public class Analyzer extends AnalyzingBehavior {
+public class Analyzer extends AnalyzingBehavior implements SharingBehavior {
     private static final String DESCRIPTION = 
         "<HTML>Tries to analyse the best action against a given finch<br>" + 
         "based on the points given for each possible outcome<br>" + 
         "and a memory of all previous meetings with that finch.</HTML>";
     
-    private Behavior fallbackBehavior;
+    private final Predictor fallbackBehavior;
+
+    /**
+     * True if the fallback behavior is shared with a Predictor
+     * personality, which counts its evictions itself.
+     */
+    private final boolean sharedFallback;
     private final static int HelpedGotHelpValue = 1;
     private final static int HelpedDidntGetHelpValue = -2;
     private final static int DidntHelpGotHelpValue = 3;
@@ -26,7 +33,24 @@ public class Analyzer extends AnalyzingBehavior {
     }
     
     public Analyzer () {
-        fallbackBehavior = new Predictor();
+        this(false);
+    }
+
+    /**
+     * Create an Analyzer.
+     *
+     * @param keepHistory If true, every interaction is kept for tools
+     * analysing the behavior. The decisions are the same either way.
+     */
+    public Analyzer (boolean keepHistory) {
+        this(keepHistory, new Predictor(), false);
+    }
+
+    private Analyzer (boolean keepHistory, Predictor fallbackBehavior,
+                      boolean sharedFallback) {
+        super(keepHistory);
+        this.fallbackBehavior = fallbackBehavior;
+        this.sharedFallback = sharedFallback;
     }
 
     public void response(Finch finch, Action action) {
@@ -41,24 +65,12 @@ public class Analyzer extends AnalyzingBehavior {
 
 
         if (analysis != null) {
-            int cleaningGoodness = 0;
-            int ignoringGoodness = 0;
-            
-            for (Analysis.Interaction interaction : analysis) {
-                Action action = interaction.action;
-                Action reaction = interaction.reaction;
-                if (action == Action.CLEANING) {
-                    if (reaction == Action.CLEANING)
-                        cleaningGoodness += HelpedGotHelpValue;
-                    else if (reaction == Action.IGNORING)
-                        cleaningGoodness += HelpedDidntGetHelpValue;
-                } else if (action == Action.IGNORING){
-                    if (reaction == Action.CLEANING)
-                        ignoringGoodness += DidntHelpGotHelpValue;
-                    if (reaction == Action.IGNORING)
-                        ignoringGoodness += DidntHelpDidntGetHelpValue;
-                }
-            }
+            int cleaningGoodness =
+                analysis.count(Action.CLEANING, Action.CLEANING) * HelpedGotHelpValue
+                + analysis.count(Action.CLEANING, Action.IGNORING) * HelpedDidntGetHelpValue;
+            int ignoringGoodness =
+                analysis.count(Action.IGNORING, Action.CLEANING) * DidntHelpGotHelpValue
+                + analysis.count(Action.IGNORING, Action.IGNORING) * DidntHelpDidntGetHelpValue;
             if (cleaningGoodness != ignoringGoodness)
                 choice = cleaningGoodness > ignoringGoodness ? Action.CLEANING
                     : Action.IGNORING;
@@ -68,8 +80,51 @@ public class Analyzer extends AnalyzingBehavior {
         return choice;
     }
 
+    /**
+     * Forget the finch, also in the fallback behavior.
+     */
+    public void forget(int finchId) {
+        super.forget(finchId);
+        fallbackBehavior.forget(finchId);
+    }
+
+    /**
+     * Limit the memory, also of the fallback behavior.
+     */
+    public void limitMemory(MemoryLimit limit) {
+        super.limitMemory(limit);
+        fallbackBehavior.limitMemory(limit);
+    }
+
+    /**
+     * The evictions of the memory of the Analyzer itself, so that a
+     * finch forgotten by both it and the fallback behavior is counted
+     * once. The evictions of a fallback behavior of its own are
+     * dropped, and those of a shared one are left to its personality.
+     */
+    public int takeEvictions() {
+        if (!sharedFallback)
+            fallbackBehavior.takeEvictions();
+        return super.takeEvictions();
+    }
+
     public Behavior clone() {
-        return new Analyzer();
+        return new Analyzer(keepsHistory());
+    }
+
+    /**
+     * Returns true for Predictors, as the Analyzer falls back on one.
+     */
+    public boolean canShareWith(Behavior behavior) {
+        return behavior instanceof Predictor;
+    }
+
+    /**
+     * A new Analyzer falling back on the provided Predictor, which
+     * then also learns from the meetings of the Analyzer.
+     */
+    public Behavior cloneSharing(Behavior behavior) {
+        return new Analyzer(keepsHistory(), (Predictor) behavior, true);
     }
 
     public String toString() {
@@ -7,8 +7,16 @@ import java.util.*;
 /**
  * An abstract behavior type that stores knowledge about interactions
  * and permit later analysis to choose an optimal strategy.
+ *
+ * For each finch, the number of interactions with each combination of
+ * action and reaction is counted, so an analysis takes the same room
+ * and time however often the finches have met. The interactions
+ * themselves are only kept if the behavior is created to keep the
+ * history, which is meant for tools analysing the behavior.
  */
 public abstract class AnalyzingBehavior extends MemoryBehavior<AnalyzingBehavior.Analysis> {
+    private final boolean keepHistory;
+
     /**
      * An interaction history for a specific finch.
      */
@@ -26,12 +34,20 @@ public abstract class AnalyzingBehavior extends MemoryBehavior<AnalyzingBehavior
         private Action justMadeAction;
         
         /**
-         * All previous interactions.
+         * The number of interactions for each action and reaction,
+         * indexed by {@code index(action, reaction)}.
+         */
+        private final int[] counts;
+
+        /**
+         * All previous interactions, or null if the history isn't
+         * kept.
          */
-        private List<Interaction> interactions;
+        private final List<Interaction> interactions;
 
         private Analysis() {
-            interactions = new LinkedList<Interaction>();
+            counts = new int[4];
+            interactions = keepHistory ? new ArrayList<Interaction>() : null;
         }
         
         protected class Interaction {
@@ -59,8 +75,11 @@ public abstract class AnalyzingBehavior extends MemoryBehavior<AnalyzingBehavior
          * is about.
          */
         protected void registerReaction(Action reaction) {
-            if (awaitingAction != null)
-                interactions.add(new Interaction(awaitingAction, reaction));
+            if (awaitingAction != null) {
+                counts[index(awaitingAction, reaction)]++;
+                if (interactions != null)
+                    interactions.add(new Interaction(awaitingAction, reaction));
+            }
             awaitingAction = null;
         }
 
@@ -78,11 +97,54 @@ public abstract class AnalyzingBehavior extends MemoryBehavior<AnalyzingBehavior
             justMadeAction = action;
         }
 
+        /**
+         * The number of interactions in which the action caused the
+         * reaction.
+         */
+        protected int count(Action action, Action reaction) {
+            return counts[index(action, reaction)];
+        }
+
+        /**
+         * Iterate through all previous interactions.
+         *
+         * @require keepsHistory()
+         */
         public Iterator<Interaction> iterator() {
+            if (interactions == null)
+                throw new IllegalStateException("The history of interactions isn't kept.");
             return interactions.iterator();
         }
     }
 
+    /**
+     * Create an AnalyzingBehavior that only counts the interactions.
+     */
+    public AnalyzingBehavior() {
+        this(false);
+    }
+
+    /**
+     * Create an AnalyzingBehavior.
+     *
+     * @param keepHistory If true, every interaction is kept, so the
+     * analyses can be iterated through.
+     */
+    public AnalyzingBehavior(boolean keepHistory) {
+        this.keepHistory = keepHistory;
+    }
+
+    /**
+     * Return true if every interaction is kept.
+     */
+    public boolean keepsHistory() {
+        return keepHistory;
+    }
+
+    private static int index(Action action, Action reaction) {
+        return action.ordinal() * 2 + reaction.ordinal();
+    }
+
     /**
      * Make sure we have memory about the provided finch. Will create
      * memory object if we do not, will not do anything if we do.
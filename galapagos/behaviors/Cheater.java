@@ -5,7 +5,7 @@ import galapagos.biotope.*;
 /**
  * A simple finch-behavior that consequently ignores other finches.
  */
-public class Cheater implements Behavior {
+public class Cheater implements StrategyBehavior {
     private static final String DESCRIPTION = "Always ignores other finches.";
     
     /**
@@ -22,6 +22,13 @@ public class Cheater implements Behavior {
         return Action.IGNORING;
     }
 
+    /**
+     * @inheritDoc
+     */
+    public Strategy strategy() {
+        return Strategy.ALWAYS_IGNORING;
+    }
+
     /**
      * Doesn't use the other finch's action.
      */
@@ -0,0 +1,248 @@
+package galapagos.behaviors;
+
+/**
+ * A map from finch ids to values, using open addressing with linear
+ * probing in primitive arrays, so that looking up a finch neither
+ * boxes its id nor follows a chain of entries. Removal shifts the
+ * following entries back instead of leaving tombstones, so the map
+ * never needs rehashing because of removals.
+ *
+ * The arrays are not allocated until the first value is stored.
+ *
+ * The values are kept in an array of objects parallel to the ids.
+ * Subclasses may store them more compactly by overriding
+ * allocateValues, value and setValue, and more efficiently also
+ * moveValue and moveValues.
+ *
+ * @param <V> The type of the values.
+ */
+public class IdMap<V> {
+    /**
+     * Marks an empty slot. No finch has this id.
+     */
+    private static final int EMPTY = Integer.MIN_VALUE;
+
+    private static final int INITIAL_CAPACITY = 8;
+
+    private int[] keys;
+    private Object[] values;
+    private int size;
+
+    /**
+     * Return the number of ids in the map.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Return the value stored with the id, or null if there is none.
+     */
+    @SuppressWarnings("unchecked")
+    public V get(int id) {
+        int slot = slotOf(id);
+        return slot < 0 ? null : value(slot);
+    }
+
+    /**
+     * Return the slot holding the id, or -1 if the id is not in the
+     * map. The slot of an id stays the same until an id is put into
+     * or removed from the map.
+     */
+    public int slotOf(int id) {
+        if (keys == null)
+            return -1;
+        int mask = keys.length - 1;
+        for (int slot = slot(id, mask); keys[slot] != EMPTY; slot = (slot + 1) & mask)
+            if (keys[slot] == id)
+                return slot;
+        return -1;
+    }
+
+    /**
+     * Store the value with the id, replacing any value already
+     * stored with it.
+     *
+     * @require id != Integer.MIN_VALUE && value != null
+     */
+    public void put(int id, V value) {
+        assert (id != EMPTY) : "Illegal finch id.";
+        assert (value != null) : "Cannot store null.";
+        if (keys == null) {
+            keys = newKeys(INITIAL_CAPACITY);
+            allocateValues(INITIAL_CAPACITY);
+        }
+        int mask = keys.length - 1;
+        int slot = slot(id, mask);
+        for (; keys[slot] != EMPTY; slot = (slot + 1) & mask)
+            if (keys[slot] == id) {
+                setValue(slot, value);
+                return;
+            }
+        keys[slot] = id;
+        setValue(slot, value);
+        if (++size * 4 > keys.length * 3)
+            resize(keys.length * 2);
+    }
+
+    /**
+     * Remove the id and its value from the map, if it is there.
+     *
+     * @return The value that was stored with the id, or null.
+     */
+    public V remove(int id) {
+        if (keys == null)
+            return null;
+        int mask = keys.length - 1;
+        int slot = slot(id, mask);
+        while (keys[slot] != id) {
+            if (keys[slot] == EMPTY)
+                return null;
+            slot = (slot + 1) & mask;
+        }
+        V value = value(slot);
+        size--;
+
+        // Shift back the entries following the removed one, until an
+        // entry is found which is already as close to its home slot
+        // as it can be.
+        int hole = slot;
+        for (int next = (hole + 1) & mask; keys[next] != EMPTY; next = (next + 1) & mask) {
+            int home = slot(keys[next], mask);
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                keys[hole] = keys[next];
+                moveValue(next, hole);
+                hole = next;
+            }
+        }
+        keys[hole] = EMPTY;
+        setValue(hole, null);
+        return value;
+    }
+
+    /**
+     * Remove all ids from the map.
+     */
+    public void clear() {
+        keys = null;
+        allocateValues(0);
+        size = 0;
+    }
+
+    /**
+     * Return the number of slots of the map. Together with isUsed,
+     * idAt and valueAt, this allows looking through the map without
+     * allocating an iterator. The map must not be changed meanwhile.
+     */
+    public int slots() {
+        return keys == null ? 0 : keys.length;
+    }
+
+    /**
+     * Return true if an id is stored in the slot.
+     *
+     * @require 0 <= slot < slots()
+     */
+    public boolean isUsed(int slot) {
+        return keys[slot] != EMPTY;
+    }
+
+    /**
+     * Return the id stored in the slot.
+     *
+     * @require isUsed(slot)
+     */
+    public int idAt(int slot) {
+        return keys[slot];
+    }
+
+    /**
+     * Return the value stored in the slot.
+     *
+     * @require isUsed(slot)
+     */
+    public V valueAt(int slot) {
+        return value(slot);
+    }
+
+    /**
+     * Replace the storage of the values with an empty one for the
+     * provided number of slots.
+     */
+    protected void allocateValues(int capacity) {
+        values = capacity == 0 ? null : new Object[capacity];
+    }
+
+    /**
+     * Return the value stored in the slot, or null.
+     */
+    @SuppressWarnings("unchecked")
+    protected V value(int slot) {
+        return (V) values[slot];
+    }
+
+    /**
+     * Store the value in the slot. Storing null empties the slot.
+     */
+    protected void setValue(int slot, V value) {
+        values[slot] = value;
+    }
+
+    /**
+     * Move the value of a slot to another slot, whose value is
+     * overwritten.
+     */
+    protected void moveValue(int from, int to) {
+        setValue(to, value(from));
+    }
+
+    /**
+     * Replace the storage of the values with one for the provided
+     * number of slots, moving the value of each old slot i to slot
+     * newSlots[i], unless newSlots[i] is -1. Called when the map
+     * grows, after the ids have been moved.
+     */
+    @SuppressWarnings("unchecked")
+    protected void moveValues(int capacity, int[] newSlots) {
+        Object[] oldValues = new Object[newSlots.length];
+        for (int i = 0; i < newSlots.length; i++)
+            if (newSlots[i] >= 0)
+                oldValues[i] = value(i);
+        allocateValues(capacity);
+        for (int i = 0; i < newSlots.length; i++)
+            if (newSlots[i] >= 0)
+                setValue(newSlots[i], (V) oldValues[i]);
+    }
+
+    /**
+     * The home slot of an id in a table with the provided mask.
+     */
+    private static int slot(int id, int mask) {
+        int hash = id * 0x9E3779B9;
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+
+    private static int[] newKeys(int capacity) {
+        int[] keys = new int[capacity];
+        java.util.Arrays.fill(keys, EMPTY);
+        return keys;
+    }
+
+    private void resize(int capacity) {
+        int[] oldKeys = keys;
+        int[] newSlots = new int[oldKeys.length];
+        keys = newKeys(capacity);
+        int mask = capacity - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            newSlots[i] = -1;
+            if (oldKeys[i] != EMPTY) {
+                int slot = slot(oldKeys[i], mask);
+                while (keys[slot] != EMPTY)
+                    slot = (slot + 1) & mask;
+                keys[slot] = oldKeys[i];
+                newSlots[i] = slot;
+            }
+        }
+        moveValues(capacity, newSlots);
+    }
+}
@@ -2,18 +2,35 @@ package galapagos.behaviors;
 
 import galapagos.biotope.*;
 
-import java.util.LinkedList;
-
 /**
  * A modification of the Grudger behavior. If the same finch has ignored
  * it two times, it will consequently ignore that finch. 
+ *
+ * The grudge against each finch is kept in the memory of the
+ * behavior, so a finch is blacklisted at most once, looking it up
+ * takes constant time, and it is taken off the blacklist when it
+ * dies.
  */
-public class LenientGrudger extends ActionMemoryBehavior {
+public class LenientGrudger extends MemoryBehavior<LenientGrudger.Grudge> {
     private static final String DESCRIPTION = 
         "<HTML>Cleans a specific finch as long as the<br>" +
         "Lenient Grudger is ignored at most one time.</HTML>";
     
-    private final LinkedList<Finch> blacklist;
+    /**
+     * How much the Lenient Grudger holds against a finch that has
+     * ignored it.
+     */
+    protected enum Grudge {
+        /**
+         * Ignored once, and forgiven.
+         */
+        WARNED,
+
+        /**
+         * Ignored twice, and never forgiven.
+         */
+        BLACKLISTED
+    }
 
     /**
      * @inheritDoc
@@ -24,7 +41,6 @@ public class LenientGrudger extends ActionMemoryBehavior {
     
     public LenientGrudger () {
         super();
-        blacklist = new LinkedList<Finch>();
     }
     
     /**
@@ -32,27 +48,17 @@ public class LenientGrudger extends ActionMemoryBehavior {
      */
     public void response(Finch finch, Action action) {
         if (action == Action.IGNORING)
-            if (recall(finch) != null && recall(finch) == Action.IGNORING)
-                blacklist.add(finch);
-            else
-                remember(finch, Action.IGNORING);
+            remember(finch, recall(finch) == null ? Grudge.WARNED : Grudge.BLACKLISTED);
     }
     
     /**
-     * What a lenient grudger does to finches not on the blacklist.
-     */
-    protected Action defaultAction() {
-        return Action.CLEANING;
-    }
-
-    /**
-     * Ignores all blacklisted finches, the defaultAction is used againts the rest.
+     * Ignores all blacklisted finches, and cleans the rest.
      */
     public Action decide(Finch finch) {
-        if (blacklist.contains(finch))
+        if (recall(finch) == Grudge.BLACKLISTED)
             return Action.IGNORING;
         else
-            return defaultAction();
+            return Action.CLEANING;
     }
     
     /**
@@ -2,33 +2,79 @@ package galapagos.behaviors;
 
 import galapagos.biotope.*;
 
-import java.util.*;
-
 /**
  * Every behavior that sometimes uses information about
  * finches it met earlier, extends this class.
+ *
+ * The finches are remembered by their id, and are forgotten when the
+ * Biotope tells the behavior that a finch has left.
  * @param <DATA> The type of data the behavior needs to store.
  */
-public abstract class MemoryBehavior<DATA> implements Behavior {
-    private final Map<Finch, DATA> finches;
+public abstract class MemoryBehavior<DATA> implements RememberingBehavior {
+    private final IdMap<DATA> finches;
+    
+    /**
+     * How the finches have been used, only kept while the memory is
+     * limited. Has the same ids as finches.
+     */
+    private IdMap<Usage> usages;
+    private MemoryLimit limit;
+    private long clock;
+    private int evictions;
+    
+    /**
+     * When a remembered finch was remembered first and used last,
+     * and how many times it has been used.
+     */
+    private static class Usage {
+        private final long remembered;
+        private long used;
+        private int uses;
+        
+        private Usage(long time) {
+            remembered = time;
+            used = time;
+            uses = 1;
+        }
+    }
     
     /**
      * Constructor for MemoryBehavior.
      * @ensure {@code this.recall(finch) == null} for any {@code Finch}.
      */
     public MemoryBehavior() {
-        //The garbage collector removes items from WeakHashMap's
-        //if there is no other references to them in the program.
-        finches = new WeakHashMap<Finch, DATA>();
+        this(new IdMap<DATA>());
     }
     
     /**
-     * Remember a finch and with some data about it.
+     * Constructor for MemoryBehaviors storing their data in a
+     * specialized map.
+     * @param finches The empty map to remember the finches in.
+     * @require {@code finches.size() == 0}
+     */
+    protected MemoryBehavior(IdMap<DATA> finches) {
+        assert (finches.size() == 0) : "The memory must start out empty.";
+        this.finches = finches;
+    }
+    
+    /**
+     * Remember a finch and with some data about it. If the memory is
+     * limited and full, another finch is forgotten to make room.
      * @param finch The finch to remember.
      * @param data The data to store with the finch.
      */
     protected void remember(Finch finch, DATA data) {
-        finches.put(finch, data);
+        int id = finch.id();
+        if (limit != null) {
+            Usage usage = usages.get(id);
+            if (usage == null) {
+                while (finches.size() >= limit.capacity())
+                    evict();
+                usages.put(id, new Usage(++clock));
+            } else
+                use(usage);
+        }
+        finches.put(id, data);
     }
     
     /**
@@ -39,7 +85,102 @@ public abstract class MemoryBehavior<DATA> implements Behavior {
      * @return The data associated with the given finch or null.
      */
     protected DATA recall(Finch finch) {
-        return finches.get(finch);
+        int slot = recallSlot(finch);
+        return slot < 0 ? null : finches.valueAt(slot);
+    }
+    
+    /**
+     * Return the slot of the map the behavior was constructed with
+     * where the data of a given finch is kept, or -1 if the finch
+     * isn't remembered. This is recalling the finch, like recall,
+     * for behaviors that read their data directly from their map.
+     * The slot is only valid until a finch is remembered or
+     * forgotten.
+     *
+     * @param finch The finch to look up in the memory.
+     */
+    protected int recallSlot(Finch finch) {
+        int slot = finches.slotOf(finch.id());
+        if (slot >= 0 && limit != null)
+            use(usages.get(finch.id()));
+        return slot;
+    }
+    
+    /**
+     * @inheritDoc
+     */
+    public void forget(int finchId) {
+        finches.remove(finchId);
+        if (usages != null)
+            usages.remove(finchId);
+    }
+    
+    /**
+     * @inheritDoc
+     */
+    public void limitMemory(MemoryLimit limit) {
+        this.limit = limit;
+        if (limit == null) {
+            usages = null;
+        } else if (usages == null) {
+            // The finches remembered so far count as remembered at
+            // the same time, and as used once.
+            usages = new IdMap<Usage>();
+            for (int slot = 0; slot < finches.slots(); slot++)
+                if (finches.isUsed(slot))
+                    usages.put(finches.idAt(slot), new Usage(clock));
+        }
+    }
+    
+    /**
+     * @inheritDoc
+     */
+    public int takeEvictions() {
+        int taken = evictions;
+        evictions = 0;
+        return taken;
+    }
+    
+    private void use(Usage usage) {
+        usage.used = ++clock;
+        usage.uses++;
+    }
+    
+    /**
+     * Forget the finch chosen by the eviction policy of the limit.
+     *
+     * @require limit != null && finches.size() > 0
+     */
+    private void evict() {
+        int victim = 0;
+        Usage victimUsage = null;
+        for (int slot = 0; slot < usages.slots(); slot++) {
+            if (!usages.isUsed(slot))
+                continue;
+            Usage usage = usages.valueAt(slot);
+            if (victimUsage == null || isBetterVictim(usage, victimUsage)) {
+                victim = usages.idAt(slot);
+                victimUsage = usage;
+            }
+        }
+        forget(victim);
+        evictions++;
+    }
+    
+    /**
+     * Return true if the eviction policy would rather forget the
+     * finch with the first usage than the one with the second.
+     */
+    private boolean isBetterVictim(Usage usage, Usage other) {
+        switch (limit.eviction()) {
+            case LEAST_RECENTLY_USED:
+                return usage.used < other.used;
+            case LEAST_FREQUENTLY_USED:
+                return usage.uses < other.uses
+                    || (usage.uses == other.uses && usage.remembered < other.remembered);
+            default:
+                return usage.remembered < other.remembered;
+        }
     }
     
     /**
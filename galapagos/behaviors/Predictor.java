@@ -22,9 +22,43 @@ public class Predictor extends MemoryBehavior<Predictor.Prediction> {
      */
     protected enum Prediction {STRONG_IGNORE, WEAK_IGNORE, STRONG_CLEAN, WEAK_CLEAN}
     
+    private static final Prediction[] PREDICTIONS = Prediction.values();
+    
+    /**
+     * The prediction following a prediction and the action the
+     * finch then took, indexed by
+     * {@code prediction.ordinal() * 2 + action.ordinal()}.
+     */
+    private static final Prediction[] TRANSITIONS = {
+        // STRONG_IGNORE
+        Prediction.WEAK_IGNORE, Prediction.STRONG_IGNORE,
+        // WEAK_IGNORE
+        Prediction.STRONG_CLEAN, Prediction.STRONG_IGNORE,
+        // STRONG_CLEAN
+        Prediction.STRONG_CLEAN, Prediction.WEAK_CLEAN,
+        // WEAK_CLEAN
+        Prediction.STRONG_CLEAN, Prediction.STRONG_IGNORE
+    };
+    
+    /**
+     * The action taken on a finch for each prediction, indexed by
+     * ordinal.
+     */
+    private static final Action[] DECISIONS = {
+        Action.IGNORING, Action.IGNORING, Action.IGNORING, Action.CLEANING
+    };
+    
+    /**
+     * Create a Predictor with an empty memory.
+     */
+    public Predictor() {
+        super(new Predictions());
+    }
+    
     /**
-     * If a finch just met ignores this lenient grudger finch twice it
-     * should be remembered.
+     * Update the prediction for the finch with the action it just
+     * took. A finch not met before is predicted strongly to do the
+     * same again.
      */
     public void response(Finch finch, Action action) {
         Prediction prediction = recall(finch);
@@ -33,24 +67,9 @@ public class Predictor extends MemoryBehavior<Predictor.Prediction> {
                      Prediction.STRONG_IGNORE :
                      Prediction.STRONG_CLEAN);
         else {
-            if (prediction == Prediction.STRONG_IGNORE &&
-                action == Action.CLEANING)
-                remember(finch, Prediction.WEAK_IGNORE);
-            else if (prediction == Prediction.WEAK_IGNORE && 
-                     action == Action.CLEANING)
-                remember(finch, Prediction.STRONG_CLEAN);
-             else if (prediction == Prediction.WEAK_IGNORE &&
-                      action == Action.IGNORING)
-                 remember(finch, Prediction.STRONG_IGNORE);
-            else if (prediction == Prediction.STRONG_CLEAN && 
-                     action == Action.IGNORING)
-                remember(finch, Prediction.WEAK_CLEAN);
-            else if (prediction == Prediction.WEAK_CLEAN && 
-                     action == Action.IGNORING)
-                remember(finch, Prediction.STRONG_IGNORE);
-             else if (prediction == Prediction.WEAK_CLEAN && 
-                      action == Action.CLEANING)
-                 remember(finch, Prediction.STRONG_CLEAN);
+            Prediction next = TRANSITIONS[prediction.ordinal() * 2 + action.ordinal()];
+            if (next != prediction)
+                remember(finch, next);
         }
     }
     
@@ -64,18 +83,35 @@ public class Predictor extends MemoryBehavior<Predictor.Prediction> {
     public Action decide(Finch finch) {
         Prediction prediction = recall(finch);
 
-        if (prediction != null) {
-            if (prediction == Prediction.STRONG_IGNORE || 
-                prediction == Prediction.WEAK_IGNORE ||
-                prediction == Prediction.STRONG_CLEAN)
-                return Action.IGNORING;
-            if (prediction == Prediction.WEAK_CLEAN)
-                return Action.CLEANING;
-        }
+        if (prediction != null)
+            return DECISIONS[prediction.ordinal()];
         
         return defaultAction();
     }
     
+    /**
+     * An IdMap storing the predictions as two bits per slot, so one
+     * long holds the predictions of 32 slots.
+     */
+    private static class Predictions extends IdMap<Prediction> {
+        private long[] bits;
+        
+        protected void allocateValues(int capacity) {
+            bits = capacity == 0 ? null : new long[(capacity + 31) >>> 5];
+        }
+        
+        protected Prediction value(int slot) {
+            int shift = (slot & 31) << 1;
+            return PREDICTIONS[(int) (bits[slot >>> 5] >>> shift) & 3];
+        }
+        
+        protected void setValue(int slot, Prediction value) {
+            int shift = (slot & 31) << 1;
+            long ordinal = value == null ? 0 : value.ordinal();
+            bits[slot >>> 5] = (bits[slot >>> 5] & ~(3L << shift)) | (ordinal << shift);
+        }
+    }
+    
     /**
      * @inheritDoc
      */
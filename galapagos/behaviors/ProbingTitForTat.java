@@ -1,11 +1,12 @@
 package galapagos.behaviors;
 
 import galapagos.biotope.*;
+import java.util.SplittableRandom;
 
 /**
  * A Tit-for-tat variant which some times (approximately every fifth time) chooses to IGNORE the other finch.
  */
-public class ProbingTitForTat extends ActionMemoryBehavior {
+public class ProbingTitForTat extends ActionMemoryBehavior implements RandomBehavior {
     private static final String DESCRIPTION = 
         "<HTML>Normally does what the other finch did when<br>" +
         "they last met (and cleans the first meeting),<br>" +
@@ -33,10 +34,14 @@ public class ProbingTitForTat extends ActionMemoryBehavior {
      * we do what a TitForTat would do.
      */
     public Action decide(Finch finch) {
-        //create a random value between 0 and 1
-        int random = (int)Math.floor(Math.random() * 2);
-        
-        if (count == 0 && random == 0) {
+        return decide(finch, RandomBehavior.Fallback.random());
+    }
+
+    /**
+     * As {@link #decide(Finch)}, using the provided random generator.
+     */
+    public Action decide(Finch finch, SplittableRandom random) {
+        if (count == 0 && random.nextInt(2) == 0) {
             count = 5;
             return Action.IGNORING;
         } else {
@@ -1,11 +1,12 @@
 package galapagos.behaviors;
 
 import galapagos.biotope.*;
+import java.util.SplittableRandom;
 
 /**
  * A finch behavior that randomly chooses between cleaning and ignoring other finches.
  */
-public class RandomFinch implements Behavior {
+public class RandomFinch implements RandomBehavior, StrategyBehavior {
     private static final String DESCRIPTION = 
         "Chooses randomly whether to clean (50% chance) or ignore.";
     
@@ -20,7 +21,15 @@ public class RandomFinch implements Behavior {
      * Chooses randomly between CLEANING and IGNORING other finches.
      */
     public Action decide(Finch finch) {
-        int choice = ((int) Math.random()) * 2;
+        return decide(finch, RandomBehavior.Fallback.random());
+    }
+
+    /**
+     * Chooses randomly between CLEANING and IGNORING other finches,
+     * using the provided random generator.
+     */
+    public Action decide(Finch finch, SplittableRandom random) {
+        int choice = random.nextInt(2);
 
         switch (choice) {
         case 0:
@@ -34,6 +43,13 @@ public class RandomFinch implements Behavior {
         }
     }
 
+    /**
+     * @inheritDoc
+     */
+    public Strategy strategy() {
+        return Strategy.RANDOM;
+    }
+
     /**
      * Doesn't use the finch's action.
      */
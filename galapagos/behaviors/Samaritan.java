@@ -5,7 +5,7 @@ import galapagos.biotope.*;
 /**
  * A simple finch-behavior that consequently cleans other finches.
  */
-public class Samaritan implements Behavior {
+public class Samaritan implements StrategyBehavior {
     private static final String DESCRIPTION = 
         "Always cleans other finches.";
     
@@ -23,6 +23,13 @@ public class Samaritan implements Behavior {
         return Action.CLEANING; 
     }
 
+    /**
+     * @inheritDoc
+     */
+    public Strategy strategy() {
+        return Strategy.ALWAYS_CLEANING;
+    }
+
     /**
      * Doesn't use the other finch's action.
      */
@@ -2,31 +2,65 @@ package galapagos.behaviors;
 
 import galapagos.biotope.*;
 import java.util.List;
-import java.util.ArrayList;
+import java.util.SplittableRandom;
 
 /**
  * A Behavior with multiple personalities.
+ *
+ * The personalities are given as prototypes, shared by all clones of
+ * the Schizophrenic. A finch makes its own copy of a personality the
+ * first time it chooses it, so it carries no memory for personalities
+ * it has not used yet. Stateless personalities are not copied at all.
  */
-public class Schizophrenic implements Behavior {
+public class Schizophrenic implements RandomBehavior, RememberingBehavior {
     private final String name;
     private final String description;
     private final List<Behavior> personalities;
+    private final boolean sharedMemory;
+    
+    /**
+     * The personalities of this finch, indexed as the prototypes,
+     * or null for those not chosen yet.
+     */
+    private final Behavior[] instances;
     private int personalityChoice;
+    private MemoryLimit limit;
     
     /**
-     * Create a new Schizophrenic Behavior.
+     * Create a new Schizophrenic Behavior, whose personalities don't
+     * share any memory of meetings.
      * @param name the name of the specific personality combination. Each combination
      * of Behaviors must be given different names (since {@code equals} depends
      * on the names to compare two Schizophrenic.
      * @param personalities the Behaviors that this Schizophrenic, chooses randomly
-     * between each round. The personalities don't share any
-     * memory of meetings.
+     * between each round.
      * @require {@code personalities.size() > 0}
      * @ensure {@code this.toString().equals(name)}
      */
     public Schizophrenic (String name, List<Behavior> personalities) {
+        this(name, personalities, false);
+    }
+    
+    /**
+     * Create a new Schizophrenic Behavior.
+     * @param name the name of the specific personality combination. Each combination
+     * of Behaviors must be given different names (since {@code equals} depends
+     * on the names to compare two Schizophrenic.
+     * @param personalities the Behaviors that this Schizophrenic, chooses randomly
+     * between each round. They are used as prototypes, and must not
+     * be changed afterwards.
+     * @param sharedMemory If true, a personality that is a
+     * SharingBehavior keeps the memory it can share in another
+     * personality, which then learns from the meetings of both.
+     * @require {@code personalities.size() > 0}
+     * @ensure {@code this.toString().equals(name)}
+     */
+    public Schizophrenic (String name, List<Behavior> personalities, boolean sharedMemory) {
+        assert (personalities.size() > 0) : "A Schizophrenic needs a personality.";
         this.name = name;
         this.personalities = personalities;
+        this.sharedMemory = sharedMemory;
+        instances = new Behavior[personalities.size()];
         
         String description = 
             "<HTML>A schizophrenic finch with the following personalities:";
@@ -37,13 +71,77 @@ public class Schizophrenic implements Behavior {
         this.description = description;
     }
 
+    /**
+     * Returns true if the personalities of this Schizophrenic share
+     * memory.
+     */
+    public boolean hasSharedMemory() {
+        return sharedMemory;
+    }
+
     /**
      * Returns the Action from a random Behavior among this
      * Schizophrenic's behaviors.
      */
     public Action decide(Finch finch) {
-        personalityChoice = (int) Math.random() * personalities.size();
-        return personalities.get(personalityChoice).decide(finch);
+        return decide(finch, RandomBehavior.Fallback.random());
+    }
+
+    /**
+     * Returns the Action from a random Behavior among this
+     * Schizophrenic's behaviors, chosen using the provided random
+     * generator, which is also passed on to the chosen Behavior if
+     * it is a RandomBehavior.
+     */
+    public Action decide(Finch finch, SplittableRandom random) {
+        personalityChoice = random.nextInt(instances.length);
+        Behavior personality = personality(personalityChoice);
+        if (personality instanceof RandomBehavior)
+            return ((RandomBehavior) personality).decide(finch, random);
+        return personality.decide(finch);
+    }
+
+    /**
+     * Return this finch's copy of a personality, making it if it has
+     * not been chosen before.
+     */
+    private Behavior personality(int choice) {
+        Behavior personality = instances[choice];
+        if (personality == null) {
+            personality = makePersonality(choice);
+            instances[choice] = personality;
+        }
+        return personality;
+    }
+
+    /**
+     * Make this finch's copy of a personality: the prototype itself
+     * if it is stateless, else a clone, sharing the memory of another
+     * personality if the memory is shared and the personality can.
+     * The copy gets the memory limit of this finch.
+     */
+    private Behavior makePersonality(int choice) {
+        Behavior prototype = personalities.get(choice);
+        if (prototype instanceof StatelessBehavior)
+            return prototype;
+        
+        Behavior personality = null;
+        if (sharedMemory && prototype instanceof SharingBehavior) {
+            SharingBehavior sharing = (SharingBehavior) prototype;
+            for (int other = 0; other < instances.length && personality == null; other++) {
+                // Personalities sharing memory themselves are not
+                // shared, so one never waits for the other to be made.
+                Behavior otherPrototype = personalities.get(other);
+                if (other != choice && !(otherPrototype instanceof SharingBehavior)
+                    && sharing.canShareWith(otherPrototype))
+                    personality = sharing.cloneSharing(personality(other));
+            }
+        }
+        if (personality == null)
+            personality = prototype.clone();
+        if (limit != null && personality instanceof RememberingBehavior)
+            ((RememberingBehavior) personality).limitMemory(limit);
+        return personality;
     }
 
     public String description() {
@@ -51,12 +149,43 @@ public class Schizophrenic implements Behavior {
     }
 
     /**
-     * Informs either the personality that decided the action this round, 
-     * or all the personalities (depending on {@code sharedMemory} in the
-     * contructor), of the opponent's action this round.
+     * Informs the personality that decided the action this round of
+     * the opponent's action this round.
      */
     public void response(Finch finch, Action action) {
-        personalities.get(personalityChoice).response(finch, action);
+        personality(personalityChoice).response(finch, action);
+    }
+    
+    /**
+     * Makes every personality that remembers finches forget the
+     * finch.
+     */
+    public void forget(int finchId) {
+        for (Behavior personality : instances)
+            if (personality instanceof RememberingBehavior)
+                ((RememberingBehavior) personality).forget(finchId);
+    }
+    
+    /**
+     * Limits the memory of every personality that remembers finches,
+     * also of those made later.
+     */
+    public void limitMemory(MemoryLimit limit) {
+        this.limit = limit;
+        for (Behavior personality : instances)
+            if (personality instanceof RememberingBehavior)
+                ((RememberingBehavior) personality).limitMemory(limit);
+    }
+    
+    /**
+     * The evictions of all the personalities.
+     */
+    public int takeEvictions() {
+        int evictions = 0;
+        for (Behavior personality : instances)
+            if (personality instanceof RememberingBehavior)
+                evictions += ((RememberingBehavior) personality).takeEvictions();
+        return evictions;
     }
     
     /**
@@ -82,13 +211,11 @@ public class Schizophrenic implements Behavior {
     
     /**
      * A new Schizophrenic with the same name, the same personalities 
-     * (made by cloning each of the Behaviors), shared personality memory if
-     * and only if this Schizophrenic has shared personality memory.
+     * (which it copies when it first chooses them), shared personality
+     * memory if and only if this Schizophrenic has shared personality
+     * memory.
      */
     public Behavior clone() {
-        List<Behavior> clone = new ArrayList<Behavior>(personalities.size());
-        for (Behavior personality : personalities)
-            clone.add(personality.clone());
-        return new Schizophrenic(name, clone);
+        return new Schizophrenic(name, personalities, sharedMemory);
     }
 }
@@ -0,0 +1,26 @@
+package galapagos.behaviors;
+
+import galapagos.biotope.*;
+
+/**
+ * A behavior that keeps part of its memory in a behavior of another
+ * kind, and can share that behavior with others, so that a finch with
+ * several personalities keeps the data only once. A Schizophrenic
+ * with shared memory uses this to let its personalities share.
+ */
+public interface SharingBehavior extends Behavior {
+    /**
+     * Return true if a behavior like the provided one can keep part
+     * of the memory of this kind of behavior.
+     */
+    public boolean canShareWith(Behavior behavior);
+
+    /**
+     * Return a new behavior of this kind, keeping part of its memory
+     * in the provided behavior, which goes on remembering as before.
+     *
+     * @require canShareWith(behavior)
+     * @ensure {@code this.equals(this.cloneSharing(behavior))}
+     */
+    public Behavior cloneSharing(Behavior behavior);
+}
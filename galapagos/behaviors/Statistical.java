@@ -10,9 +10,11 @@ import galapagos.biotope.*;
 public class Statistical extends MemoryBehavior<Statistical.Memory> {
     /**
      * An internal class for organising the data to remember for the
-     * finches that this Statistical meets.
+     * finches that this Statistical meets. The Statistical keeps the
+     * data in the arrays of its Memories, and only makes Memory
+     * objects when the data is recalled as a whole.
      */
-    protected class Memory {
+    protected static class Memory {
         public int cleanedAndGotCleaned;
         public int cleanedTotal;
         public int ignoredAndGotCleaned;
@@ -36,7 +38,34 @@ public class Statistical extends MemoryBehavior<Statistical.Memory> {
         "probabilities of being helped when the<br>" +
         "Statistical helps or ignores the other finch.</HTML>";
     
-    private static final double weightOfGettingCleanedNextTurn = 2.0;
+    private static final int weightOfGettingCleanedNextTurn = 2;
+    
+    /**
+     * What is remembered about a finch after the first meeting.
+     */
+    private static final Memory FIRST_MEETING = new Memory();
+    static {
+        FIRST_MEETING.lastAction = Action.CLEANING;
+    }
+    
+    /**
+     * The data stored in an emptied slot.
+     */
+    private static final Memory NOTHING = new Memory();
+    
+    private final Memories memories;
+    
+    /**
+     * Create a Statistical with an empty memory.
+     */
+    public Statistical() {
+        this(new Memories());
+    }
+    
+    private Statistical(Memories memories) {
+        super(memories);
+        this.memories = memories;
+    }
     
     /**
      * @inheritDoc
@@ -53,77 +82,72 @@ public class Statistical extends MemoryBehavior<Statistical.Memory> {
      * using memory of earlier encounters with the same finch.
      */
     public Action decide(Finch finch) {
-        Memory stat = recall(finch);
+        int slot = recallSlot(finch);
         
-        if (stat == null) {
+        if (slot < 0) {
             // We have never met this finch before.
-            stat = new Memory();
-            remember(finch, stat);
-            stat.lastAction = Action.CLEANING;
-            return Action.CLEANING;
-        } else if (stat.secondToLastAction == null) {
-            // The second meeting with this finch.
-            stat.secondToLastAction = stat.lastAction;
-            stat.lastAction = Action.IGNORING;
-            return Action.IGNORING;
-        } else if (stat.cleanedTotal == 0 || stat.ignoredTotal == 0) {
-            // We don't have enough data to calculate the conditional
-            // probabilities.
-            stat.secondToLastAction = stat.lastAction;
-            stat.lastAction = Action.IGNORING;
-            return Action.IGNORING;
-        } 
-
-        // Now we have enough data to start analyzing them.
-        
-        // If the other finch might be another Statistical, we help
-        // it.
-        if (stat.mightBeStatistical) {
-            stat.secondToLastAction = stat.lastAction;
-            stat.lastAction = Action.CLEANING;
+            remember(finch, FIRST_MEETING);
             return Action.CLEANING;
         }
         
-        // We estimate the probability of other finch cleaning us if
-        // we clean it, and if we ignore it.
-        double probGettingCleanedWhenCleaning = 
-            ((double) stat.cleanedAndGotCleaned) / stat.cleanedTotal;
-        double probGettingCleanedWhenIgnoring = 
-            ((double) stat.ignoredAndGotCleaned) / stat.ignoredTotal;
-        
-        // Based on our action last round, we estimate the probability
-        // of getting cleaned this round.
-        double probGettingCleanedThisRound;
-        if (stat.lastAction == Action.CLEANING)
-            probGettingCleanedThisRound = probGettingCleanedWhenCleaning;
-        else
-            probGettingCleanedThisRound = probGettingCleanedWhenIgnoring;
-        
-        // We compute the estimated number of points we can get this
-        // round when cleaning, and when ignoring the other finch.
-        double pointsThisRoundIfCleaning = probGettingCleanedThisRound * 3.0;
-        double pointsThisRoundIfIgnoring = probGettingCleanedThisRound * 4.0 + 1.0;
-        
-        // We take into account that we would like to get cleaned next
-        // round;
-        double cleaningGoodness = pointsThisRoundIfCleaning + 
-            probGettingCleanedWhenCleaning * weightOfGettingCleanedNextTurn;
-        double ignoringGoodness = pointsThisRoundIfIgnoring + 
-            probGettingCleanedWhenIgnoring * weightOfGettingCleanedNextTurn;
-        
-        // We make our choice.
+        Memories stat = memories;
         Action choice;
-        if (cleaningGoodness >= ignoringGoodness)
-            choice = Action.CLEANING;
-        else
+        if (stat.secondToLastActions[slot] == Memories.NONE) {
+            // The second meeting with this finch.
             choice = Action.IGNORING;
+        } else if (stat.cleanedTotals[slot] == 0 || stat.ignoredTotals[slot] == 0) {
+            // We don't have enough data to calculate the conditional
+            // probabilities.
+            choice = Action.IGNORING;
+        } else if (stat.mightBeStatistical[slot]) {
+            // Now we have enough data to start analyzing them. If
+            // the other finch might be another Statistical, we help
+            // it.
+            choice = Action.CLEANING;
+        } else {
+            choice = choose(stat.cleanedAndGotCleaned[slot], stat.cleanedTotals[slot],
+                            stat.ignoredAndGotCleaned[slot], stat.ignoredTotals[slot],
+                            stat.lastActions[slot] == Memories.code(Action.CLEANING));
+        }
         
         // We save our choice in the memory.
-        stat.secondToLastAction = stat.lastAction;
-        stat.lastAction = choice;
+        stat.secondToLastActions[slot] = stat.lastActions[slot];
+        stat.lastActions[slot] = Memories.code(choice);
         
         return choice;
     }
+    
+    /**
+     * Choose the action with the most points expected, from the
+     * numbers of times the other finch cleaned this finch after being
+     * cleaned and ignored by it.
+     *
+     * We estimate the probability pc of the other finch cleaning us
+     * if we clean it, and pi if we ignore it. Based on our action
+     * last round, we estimate the probability p of getting cleaned
+     * this round, and expect 3p points this round when cleaning, and
+     * 4p + 1 when ignoring. We take into account that we would like to
+     * get cleaned next round, by adding pc or pi times a weight.
+     *
+     * The comparison of the two expectations is multiplied by the
+     * totals, so that it is done in exact integers instead of
+     * dividing.
+     *
+     * @require cleanedTotal > 0 && ignoredTotal > 0
+     */
+    private static Action choose(int cleanedAndGotCleaned, int cleanedTotal,
+                                 int ignoredAndGotCleaned, int ignoredTotal,
+                                 boolean cleanedLast) {
+        long w = weightOfGettingCleanedNextTurn;
+        // pc * cleanedTotal * ignoredTotal, and so on.
+        long pc = (long) cleanedAndGotCleaned * ignoredTotal;
+        long pi = (long) ignoredAndGotCleaned * cleanedTotal;
+        long one = (long) cleanedTotal * ignoredTotal;
+        long p = cleanedLast ? pc : pi;
+        long cleaningGoodness = 3 * p + w * pc;
+        long ignoringGoodness = 4 * p + one + w * pi;
+        return cleaningGoodness >= ignoringGoodness ? Action.CLEANING : Action.IGNORING;
+    }
 
     /**
      * Takes the Action made by the specified finch, and pair it with
@@ -133,22 +157,116 @@ public class Statistical extends MemoryBehavior<Statistical.Memory> {
      * finch.
      */
     public void response(Finch finch, Action action) {
-        Memory stat = recall(finch);
+        int slot = recallSlot(finch);
+        if (slot < 0)
+            return;
+        Memories stat = memories;
         
         // If the other finch keeps making the same decisions as us,
         // it might be another Statistical.
-        stat.mightBeStatistical = 
-            stat.mightBeStatistical && (action == stat.lastAction);
+        stat.mightBeStatistical[slot] = stat.mightBeStatistical[slot]
+            && Memories.code(action) == stat.lastActions[slot];
         
-        if (stat.secondToLastAction == Action.IGNORING) {
-            stat.ignoredTotal++;
-            if (action == Action.CLEANING) {
-                stat.ignoredAndGotCleaned++;
-            }
-        } else if (stat.secondToLastAction == Action.CLEANING){
-            stat.cleanedTotal++;
-            if (action == Action.CLEANING) {
-                stat.cleanedAndGotCleaned++;
+        int cleaned = action == Action.CLEANING ? 1 : 0;
+        if (stat.secondToLastActions[slot] == Memories.code(Action.IGNORING)) {
+            stat.ignoredTotals[slot]++;
+            stat.ignoredAndGotCleaned[slot] += cleaned;
+        } else if (stat.secondToLastActions[slot] == Memories.code(Action.CLEANING)) {
+            stat.cleanedTotals[slot]++;
+            stat.cleanedAndGotCleaned[slot] += cleaned;
+        }
+    }
+    
+    /**
+     * An IdMap keeping the data of each Memory in primitive arrays,
+     * one for each field, so that the data of a finch takes no
+     * object of its own. The actions are stored as codes: NONE, or
+     * the ordinal of the action plus one.
+     */
+    private static class Memories extends IdMap<Memory> {
+        private static final byte NONE = 0;
+        private static final Action[] ACTIONS = Action.values();
+        
+        private int[] cleanedAndGotCleaned;
+        private int[] cleanedTotals;
+        private int[] ignoredAndGotCleaned;
+        private int[] ignoredTotals;
+        private byte[] lastActions;
+        private byte[] secondToLastActions;
+        private boolean[] mightBeStatistical;
+        
+        private static byte code(Action action) {
+            return action == null ? NONE : (byte) (action.ordinal() + 1);
+        }
+        
+        private static Action action(byte code) {
+            return code == NONE ? null : ACTIONS[code - 1];
+        }
+        
+        protected void allocateValues(int capacity) {
+            cleanedAndGotCleaned = new int[capacity];
+            cleanedTotals = new int[capacity];
+            ignoredAndGotCleaned = new int[capacity];
+            ignoredTotals = new int[capacity];
+            lastActions = new byte[capacity];
+            secondToLastActions = new byte[capacity];
+            mightBeStatistical = new boolean[capacity];
+        }
+        
+        protected Memory value(int slot) {
+            Memory memory = new Memory();
+            memory.cleanedAndGotCleaned = cleanedAndGotCleaned[slot];
+            memory.cleanedTotal = cleanedTotals[slot];
+            memory.ignoredAndGotCleaned = ignoredAndGotCleaned[slot];
+            memory.ignoredTotal = ignoredTotals[slot];
+            memory.lastAction = action(lastActions[slot]);
+            memory.secondToLastAction = action(secondToLastActions[slot]);
+            memory.mightBeStatistical = mightBeStatistical[slot];
+            return memory;
+        }
+        
+        protected void setValue(int slot, Memory memory) {
+            if (memory == null)
+                memory = NOTHING;
+            cleanedAndGotCleaned[slot] = memory.cleanedAndGotCleaned;
+            cleanedTotals[slot] = memory.cleanedTotal;
+            ignoredAndGotCleaned[slot] = memory.ignoredAndGotCleaned;
+            ignoredTotals[slot] = memory.ignoredTotal;
+            lastActions[slot] = code(memory.lastAction);
+            secondToLastActions[slot] = code(memory.secondToLastAction);
+            mightBeStatistical[slot] = memory.mightBeStatistical;
+        }
+        
+        protected void moveValue(int from, int to) {
+            cleanedAndGotCleaned[to] = cleanedAndGotCleaned[from];
+            cleanedTotals[to] = cleanedTotals[from];
+            ignoredAndGotCleaned[to] = ignoredAndGotCleaned[from];
+            ignoredTotals[to] = ignoredTotals[from];
+            lastActions[to] = lastActions[from];
+            secondToLastActions[to] = secondToLastActions[from];
+            mightBeStatistical[to] = mightBeStatistical[from];
+        }
+        
+        protected void moveValues(int capacity, int[] newSlots) {
+            int[] oldCleanedAndGotCleaned = cleanedAndGotCleaned;
+            int[] oldCleanedTotals = cleanedTotals;
+            int[] oldIgnoredAndGotCleaned = ignoredAndGotCleaned;
+            int[] oldIgnoredTotals = ignoredTotals;
+            byte[] oldLastActions = lastActions;
+            byte[] oldSecondToLastActions = secondToLastActions;
+            boolean[] oldMightBeStatistical = mightBeStatistical;
+            allocateValues(capacity);
+            for (int i = 0; i < newSlots.length; i++) {
+                int slot = newSlots[i];
+                if (slot < 0)
+                    continue;
+                cleanedAndGotCleaned[slot] = oldCleanedAndGotCleaned[i];
+                cleanedTotals[slot] = oldCleanedTotals[i];
+                ignoredAndGotCleaned[slot] = oldIgnoredAndGotCleaned[i];
+                ignoredTotals[slot] = oldIgnoredTotals[i];
+                lastActions[slot] = oldLastActions[i];
+                secondToLastActions[slot] = oldSecondToLastActions[i];
+                mightBeStatistical[slot] = oldMightBeStatistical[i];
             }
         }
     }
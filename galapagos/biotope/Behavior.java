@@ -2,6 +2,10 @@ package galapagos.biotope;
 
 /**
  * The interface of the finch behaviors.
+ *
+ * The Finch objects given to decide and response may stand for
+ * another finch once the call returns, so a behavior remembering the
+ * finches it meets must remember them by their id.
  */
 public interface Behavior extends Cloneable {
     /**
@@ -1,6 +1,7 @@
 package galapagos.biotope;
 
 import java.util.*;
+import java.util.concurrent.*;
 
 /**
  * A simulation of a torus-shaped world containing finches of
@@ -8,28 +9,93 @@ import java.util.*;
  * behavior type specifies, and will breed randomly. The biotope
  * permits iteration through all places in the simulated world.
  */
-public class Biotope extends Observable 
+public class Biotope
     implements Iterable<World<GalapagosFinch>.Place> {
     
     private final double breedingProbability;
     private final int maxHitpoints, initialHitpoints, hitpointsPerRound;
     private final int minMaxAge, maxMaxAge;
     private final int finchesPerBehavior;
-    private int round;
+
+    /**
+     * The number of rounds run. Volatile, as it is watched by other
+     * threads than the one running the rounds.
+     */
+    private volatile int round;
     
     /**
-     * The world used in this simulation.
+     * The world used in this simulation. The behavior id of a finch
+     * is the index of its behavior type in finchBehaviors.
      */
-    private final World<GalapagosFinch> world;
+    private final PackedWorld world;
 
-    private final Map<Behavior, Statistics> statistics;
+    /**
+     * The statistics of each behavior type, indexed by behavior id.
+     */
+    private final Statistics[] statisticsById;
     private final ArrayList<Behavior> finchBehaviors;
+    
+    /**
+     * The memory limit of the finches of each behavior type, indexed
+     * by behavior id. null means no limit.
+     */
+    private final MemoryLimit[] memoryLimits;
+
+    /**
+     * The strategy of each behavior type, indexed by behavior id: one
+     * of the DECIDES_ constants of StrategyDispatch.
+     */
+    private final byte[] strategies;
+    private final RoundEngine engine;
+    private final long seed;
+
+    /**
+     * The number of times the listeners have been notified of
+     * changes.
+     */
+    private int version;
+
+    /**
+     * The listeners of the Biotope, with the rates they are notified
+     * at. Listeners may be added and removed while the Biotope is
+     * notifying them, for instance by the user interface while a
+     * batch of rounds is running.
+     */
+    private final List<Listening> listeners = new CopyOnWriteArrayList<Listening>();
+
+    /**
+     * The version in which each place last got or lost a finch,
+     * indexed by place.
+     */
+    private final int[] changeVersions;
+
+    /**
+     * The version in which a place of each chunk of CHUNK_SIZE places
+     * last got or lost a finch, indexed by place index >>
+     * CHUNK_SHIFT, so that the places changed since a version are
+     * found without looking at every place. Several threads may stamp
+     * a chunk in a round, but they all stamp it with the same version.
+     */
+    private final int[] chunkVersions;
+    private static final int CHUNK_SHIFT = 6, CHUNK_SIZE = 1 << CHUNK_SHIFT;
+    private final SplittableRandom random;
+    private long meetings;
 
     private final static int HelpedGotHelpValue = 3;
     private final static int HelpedDidntGetHelpValue = 0;
     private final static int DidntHelpGotHelpValue = 5;
     private final static int DidntHelpDidntGetHelpValue = 1;
-    private ArrayList<Boolean> engagedFinches;
+
+    /**
+     * The hit points a finch gains from a meeting, indexed by
+     * {@code payoffIndex(own action, other action)}.
+     */
+    private final int[] payoffs = {
+        HelpedGotHelpValue, HelpedDidntGetHelpValue,
+        DidntHelpGotHelpValue, DidntHelpDidntGetHelpValue
+    };
+    private static final Action[] ACTIONS = Action.values();
+    private final Engagements engagements;
     
     /**
      * Create a Biotope object with some sensible default environment
@@ -78,6 +144,46 @@ public class Biotope extends Observable
     public Biotope (int width, int height, double breedingProbability, int maxHitpoints, 
                     int initialHitpoints, int hitpointsPerRound, int minMaxAge, int maxMaxAge,
                     int finchesPerBehavior, List<Behavior> behaviors) {
+        this(width, height, breedingProbability, maxHitpoints, initialHitpoints,
+             hitpointsPerRound, minMaxAge, maxMaxAge, finchesPerBehavior, behaviors,
+             new SerialRoundEngine());
+    }
+
+    /**
+     * Create a Biotope object with the environment values specified
+     * by the arguments, whose rounds are run by the provided engine.
+     *
+     * @param engine The engine that runs the rounds of the
+     * simulation. The engine must not run rounds of several Biotopes
+     * at the same time.
+     *
+     * @see #Biotope(int, int, double, int, int, int, int, int, int, List)
+     */
+    public Biotope (int width, int height, double breedingProbability, int maxHitpoints, 
+                    int initialHitpoints, int hitpointsPerRound, int minMaxAge, int maxMaxAge,
+                    int finchesPerBehavior, List<Behavior> behaviors, RoundEngine engine) {
+        this(width, height, breedingProbability, maxHitpoints, initialHitpoints,
+             hitpointsPerRound, minMaxAge, maxMaxAge, finchesPerBehavior, behaviors,
+             engine, new SplittableRandom().nextLong());
+    }
+
+    /**
+     * Create a Biotope object with the environment values specified
+     * by the arguments, whose rounds are run by the provided engine,
+     * and whose randomness is drawn from a generator with the
+     * provided seed. Two Biotopes created with the same arguments
+     * and seed, whose finches have the same behaviors, will run
+     * exactly the same simulation, provided their engines are
+     * deterministic.
+     *
+     * @param seed The seed of the random generator of the Biotope.
+     *
+     * @see #Biotope(int, int, double, int, int, int, int, int, int, List, RoundEngine)
+     */
+    public Biotope (int width, int height, double breedingProbability, int maxHitpoints, 
+                    int initialHitpoints, int hitpointsPerRound, int minMaxAge, int maxMaxAge,
+                    int finchesPerBehavior, List<Behavior> behaviors, RoundEngine engine,
+                    long seed) {
         assert (0.0 <= breedingProbability && breedingProbability <= 1.0) 
             : "breedingProbability must be between 0 and 1, inclusive.";
         assert (0 < initialHitpoints)
@@ -101,12 +207,18 @@ public class Biotope extends Observable
         this.finchesPerBehavior = finchesPerBehavior;
         this.finchBehaviors = new ArrayList<Behavior>(behaviors.size());
         this.finchBehaviors.addAll(behaviors);
-        world = new World<GalapagosFinch>(width, height);
-        statistics = new HashMap<Behavior,Statistics>();
-        engagedFinches = new ArrayList<Boolean>(width * height);
-        
-        for (int i = 0; i < width * height; i++)
-            engagedFinches.add(false);
+        this.engine = engine;
+        this.seed = seed;
+        random = new SplittableRandom(seed);
+        world = new PackedWorld(width, height, maxHitpoints, finchBehaviors, random);
+        statisticsById = new Statistics[finchBehaviors.size()];
+        memoryLimits = new MemoryLimit[finchBehaviors.size()];
+        strategies = new byte[finchBehaviors.size()];
+        for (int behaviorId = 0; behaviorId < strategies.length; behaviorId++)
+            strategies[behaviorId] = StrategyDispatch.strategy(finchBehaviors.get(behaviorId));
+        engagements = new Engagements(width * height);
+        changeVersions = new int[width * height];
+        chunkVersions = new int[(width * height + CHUNK_SIZE - 1) >> CHUNK_SHIFT];
         
         addStartFinches();
     }
@@ -116,66 +228,90 @@ public class Biotope extends Observable
      * and the list of behaviors.
      */
     private void addStartFinches() {
-        Iterator<World<GalapagosFinch>.Place> worldIterator = world.randomIterator();
-        for (Iterator<Behavior> bIterator = finchBehaviors.iterator();
-             bIterator.hasNext();) {
-            Behavior b = bIterator.next();
-            statistics.put(b, new Statistics());
-            for (int i = 0;i < finchesPerBehavior && worldIterator.hasNext();i++) {   
-                World<GalapagosFinch>.Place p = worldIterator.next();
-                placeFinch(p,b,false);
-            }
+        int[] order = world.randomOrder();
+        int next = 0;
+        for (int behaviorId = 0; behaviorId < finchBehaviors.size(); behaviorId++) {
+            statisticsById[behaviorId] = new Statistics();
+            for (int i = 0;i < finchesPerBehavior && next < order.length;i++)
+                placeFinch(order[next++], behaviorId, false, statisticsById, random);
         }
     }
     
     /**
      * Place a new finch of the provided behavior at the given place.
      *
-     * @param p Where the new finch will be put in the world.
-     * @param b A behavior object that will be cloned to get the
-     * behavior for the new finch.
+     * @param index The index of the place where the new finch will be
+     * put in the world.
+     * @param behaviorId The behavior id of the new finch. The
+     * behavior type will be cloned to get the behavior for the new
+     * finch, unless it is stateless, in which case it is shared.
      * @param born If true, the finch is considered to be new-born,
      * affecting statistics, and making sure that it will not breed
      * until the next round.
+     * @param stats The statistics to update, indexed by behavior id.
+     * @param random The random generator to draw the maximum age of
+     * the finch from.
      *
-     * @ensure p.getElement() == null
+     * @require !world.isOccupied(index)
      */
-    private void placeFinch (World<GalapagosFinch>.Place p, 
-                             Behavior b, Boolean born) {
-    	//System.out.println(b.getClass().getName());
-        Statistics stat = statistics.get(b);
+    private void placeFinch (int index, int behaviorId, boolean born,
+                             Statistics[] stats, SplittableRandom random) {
+        Statistics stat = stats[behaviorId];
         stat.incPopulation();
-        GalapagosFinch finch = new GalapagosFinch(initialHitpoints,
-                                                  maxHitpoints,
-                                                  randomMaxAge(),
-                                                  b.clone());
+        Behavior behavior = finchBehaviors.get(behaviorId);
+        if (!(behavior instanceof StatelessBehavior))
+            behavior = behavior.clone();
+        if (memoryLimits[behaviorId] != null)
+            ((RememberingBehavior) behavior).limitMemory(memoryLimits[behaviorId]);
+        world.place(index, behaviorId, behavior, initialHitpoints, randomMaxAge(random));
+        markChanged(index);
         if (born) 
             stat.incBorn();
         else
-            finch.makeOlder();
-        p.setElement(finch);
-        setChanged();
+            world.makeOlder(index);
     }
 
     /**
-     * Remove the finch at be specified Place. If there is no finch at
-     * the provided Place, calling this method is a no-op. If a finch
+     * Remove the finch at be specified place. If there is no finch at
+     * the provided place, calling this method is a no-op. If a finch
      * is removed, it will be subtracted from the appropriate
-     * population count in the statistics.
+     * population count in the statistics, and the neighbours that
+     * remember finches will forget it, since the next finch at the
+     * place will have the same id.
      *
-     * @param p The place in the world we wish to remove a finch from.
+     * @param index The index of the place in the world we wish to
+     * remove a finch from.
+     * @param stats The statistics to update, indexed by behavior id.
+     * @param neighbours A buffer for the indices of the neighbours.
      */
-    private void removeFinch(World<GalapagosFinch>.Place p) {
+    private void removeFinch(int index, Statistics[] stats, int[] neighbours) {
         // If we have a finch here, subtract it from the total
         // population of that type.
-        if (p.getElement() != null) {
-            Statistics s = statistics.get((p.getElement()).behavior());
-            s.decPopulation();
-            p.setElement(null);
-            setChanged();
+        if (world.isOccupied(index)) {
+            stats[world.behaviorId(index)].decPopulation();
+            world.remove(index);
+            markChanged(index);
+            world.neighbours(index, neighbours);
+            for (int k = 0; k < World.NEIGHBOURS; k++) {
+                int neighbour = neighbours[k];
+                if (world.isOccupied(neighbour)
+                    && world.behavior(neighbour) instanceof RememberingBehavior)
+                    ((RememberingBehavior) world.behavior(neighbour)).forget(index);
+            }
         }
     }
 
+    /**
+     * Return the behavior id of the provided behavior.
+     *
+     * @require finchBehaviors.contains(b)
+     */
+    private int behaviorId(Behavior b) {
+        int behaviorId = world.behaviorId(b);
+        assert (behaviorId >= 0) : "Unknown behavior " + b;
+        return behaviorId;
+    }
+
     // The following two methods are intended for use by clients.
 
     /**
@@ -192,10 +328,10 @@ public class Biotope extends Observable
             : "Cannot put finch at (" + x + "," + y + 
             "), it is beyond the borders of the world";
         
-        World<GalapagosFinch>.Place p = world.getAt(x, y);
-        removeFinch(p);
-        placeFinch(p, b, false);
-        notifyObservers();
+        int index = world.index(x, y);
+        removeFinch(index, statisticsById, new int[World.NEIGHBOURS]);
+        placeFinch(index, behaviorId(b), false, statisticsById, random);
+        publishChanges();
     }
     
     /**
@@ -213,8 +349,8 @@ public class Biotope extends Observable
             : "Cannot remove finch from (" + x + "," + y + 
             "), it is beyond the borders of the world";
         
-        removeFinch(world.getAt(x, y));
-        notifyObservers();
+        removeFinch(world.index(x, y), statisticsById, new int[World.NEIGHBOURS]);
+        publishChanges();
     }
 
     /**
@@ -233,7 +369,20 @@ public class Biotope extends Observable
                 0 <= y && y < world.height())
             : "Cannot get finch at (" + x + "," + y + "), it is beyond the borders of the world";
 
-        return world.getAt(x, y).getElement();
+        return world.finchAt(world.index(x, y));
+    }
+
+    /**
+     * Return the behavior id of the finch at the specified
+     * coordinate, which is the index of its behavior type in
+     * behaviors(), or -1 if there is no finch there. Unlike
+     * getFinchAt, this involves no objects, for drawing the world.
+     *
+     * @require 0 <= x < this.width()
+     * @require 0 <= y <= this.height()
+     */
+    public int behaviorIdAt(int x, int y) {
+        return world.behaviorId(world.index(x, y));
     }
 
     /**
@@ -242,184 +391,317 @@ public class Biotope extends Observable
      *
      * @ensure minMaxAge < randomMaxAge() < maxMaxAge;
      */
-    private int randomMaxAge () {
-        return minMaxAge + (int)(Math.random() * (maxMaxAge - minMaxAge));
+    private int randomMaxAge (SplittableRandom random) {
+        return minMaxAge + (int)(random.nextDouble() * (maxMaxAge - minMaxAge));
     }
 
     /**
      * Run a single round in the simulation, consisting of updating
      * statistics, randomly creating offspring, arrange meetings
-     * between finches, age and possibly kill finches and notify any
-     * observers.
+     * between finches, age and possibly kill finches and notify the
+     * listeners that are due to be notified at their rates. The order
+     * in which the places of the world are visited in each step is
+     * decided by the RoundEngine of the Biotope.
      */
     public void runRound () {
-        for (Statistics stat : statistics.values())
+        runRoundUnobserved();
+        version++;
+        for (Listening listening : listeners)
+            if (listening.isDue())
+                listening.notifyListener();
+    }
+
+    /**
+     * Run a single round in the simulation, as runRound, but without
+     * notifying the listeners. The changes of the round are reported
+     * to them the next time they are notified, for instance by
+     * notifyListeners.
+     */
+    public void runRoundUnobserved () {
+        for (Statistics stat : statisticsById)
             stat.newRound();
-        breed();
-        makeMeetings();
-        grimReaper();
+        engine.runRound(this);
         round++;
-        setChanged();
-        notifyObservers();
+    }
+
+    /**
+     * Return the world of this Biotope, for use by its RoundEngine.
+     */
+    PackedWorld world () {
+        return world;
+    }
+
+    /**
+     * Return the statistics of this Biotope indexed by behavior id.
+     * RoundEngines that update statistics from several threads must
+     * use their own Statistics objects and add them to these.
+     */
+    Statistics[] statisticsById () {
+        return statisticsById;
+    }
+
+    /**
+     * Return the random generator of this Biotope. RoundEngines that
+     * run several threads must split it into a generator per thread.
+     */
+    SplittableRandom random () {
+        return random;
+    }
+
+    /**
+     * Add the meetings held using the provided context to the number
+     * of meetings held in this Biotope, and reset the count of the
+     * context.
+     */
+    void countMeetings (RoundContext context) {
+        meetings += context.meetings;
+        context.meetings = 0;
+    }
+
+    /**
+     * Return the number of meetings between two finches held in this
+     * Biotope since it was created.
+     */
+    public long meetings () {
+        return meetings;
+    }
+
+    /**
+     * Return the seed of the random generator of this Biotope, which
+     * can be used to create a Biotope replaying this simulation.
+     */
+    public long seed () {
+        return seed;
     }
     
     /**
-     * Let some of the finches breed, if possible (a finch needs an
-     * empty neighbour place to breed).
-     */
-    private void breed () {
-        for (Iterator<World<GalapagosFinch>.Place> i = world.randomIterator();
-             i.hasNext();) {
-            World<GalapagosFinch>.Place place = i.next();
-            GalapagosFinch finch = place.getElement();
-            if (finch != null && finch.age() > 0 && 
-                Math.random() <= breedingProbability) {
-                List<World<GalapagosFinch>.Place> neighbours = place.emptyNeighbours(); 
-                if (!neighbours.isEmpty())
-                    placeFinch(neighbours.get(0), finch.behavior().clone(), true);
-            }
+     * Let the finch at the given place breed, if possible (a finch
+     * needs an empty neighbour place to breed, and only breeds with
+     * the breeding probability). Offspring are placed in a random
+     * empty neighbour place.
+     *
+     * @param index The index of the place.
+     * @param context The context of the calling thread.
+     */
+    void breed (int index, RoundContext context) {
+        if (world.isOccupied(index) && world.age(index) > 0 && 
+            context.random.nextDouble() <= breedingProbability) {
+            int[] neighbours = context.neighbours;
+            if (world.emptyNeighbours(index, neighbours, context.random) > 0)
+                placeFinch(neighbours[0], world.behaviorId(index), true,
+                           context.stats, context.random);
         }
     }
     
     /**
-     * Sets up random meetings between the finches of the world.
+     * Engages the finch at the given place with one of its neighbours,
+     * if there is a finch at the place and it has not yet been engaged
+     * this round.
+     *
+     * @param index The index of the place.
+     * @param context The context of the calling thread.
      */
-    private void makeMeetings() {
-        clearEngagementKnowledge();
-        for (Iterator<World<GalapagosFinch>.Place> i = world.randomIterator();
-             i.hasNext();) {
-            World<GalapagosFinch>.Place place = i.next();
-            if (place.getElement() != null && !isEngaged(place))
-                makeMeeting(place);
-        }
+    void meet (int index, RoundContext context) {
+        if (world.isOccupied(index) && !isEngaged(index))
+            makeMeeting(index, context);
     }
 
     /**
      * Engages the finch at the specified place with one of its
-     * neighbours (if any).  And makes them meet each other. If a
-     * finch doens't meet a neighbour, it gains a hitpoint due to not
-     * using time on cleaning another finch (as when to finches meet
-     * and neither cleans the other).
-     *
-     * @require place.getElement() != null && !isEngaged(place)
-     * @ensure isEngaged(place)
-     * @param place the place holding the unengaged finch
-     */
-    private void makeMeeting(World<GalapagosFinch>.Place place) {
-        assert (place.getElement() != null) : "Can't engage a null-finch";
-        assert (!isEngaged(place)) : "The finch is already engaged";
-
-        for (World<GalapagosFinch>.Place neighborPlace : place.filledNeighbours())
-            if (!isEngaged(neighborPlace)) {
-                engage(neighborPlace);
-                engage(place);
-                meet(place.getElement(), neighborPlace.getElement());
+     * neighbours (if any), and adds them to the meetings of the
+     * context. If a finch doens't meet a neighbour, it gains
+     * hitpoints as when two finches meet and neither cleans the
+     * other, since it doesn't use time on cleaning another finch.
+     *
+     * @require world.isOccupied(index) && !isEngaged(index)
+     * @ensure isEngaged(index)
+     * @param index the index of the place holding the unengaged finch
+     * @param context The context of the calling thread.
+     */
+    private void makeMeeting(int index, RoundContext context) {
+        assert (world.isOccupied(index)) : "Can't engage a null-finch";
+        assert (!isEngaged(index)) : "The finch is already engaged";
+
+        int[] neighbours = context.neighbours;
+        int count = world.filledNeighbours(index, neighbours, context.random);
+        for (int i = 0; i < count; i++) {
+            int neighbor = neighbours[i];
+            if (!isEngaged(neighbor)) {
+                engage(neighbor);
+                engage(index);
+                context.batch.add(index, neighbor);
                 return;
             }
+        }
         
-        /* If a finch doesn't participate in a meeting, it gains a hitpoint. This is the same gain as
+        meetNobody(index);
+    }
+
+    /**
+     * Let the finch at the place go without a meeting this round.
+     *
+     * @require world.isOccupied(index)
+     */
+    void meetNobody(int index) {
+        /* If a finch doesn't participate in a meeting, it gains hitpoints. This is the same gain as
          * if the finch had met another finch, and neither had used time on cleaning the other.
          */
-        place.getElement().changeHitpoints(1);
+        world.changeHitpoints(index, payoffs[payoffIndex(Action.IGNORING, Action.IGNORING)]);
+    }
+
+    /**
+     * Return the engagements of the places of the world this round.
+     */
+    Engagements engagements() {
+        return engagements;
     }
 
     /**
      * Clear the information about which finches have already met this
      * round.
      */
-    private void clearEngagementKnowledge() {
-        for (int i = 0; i < engagedFinches.size(); i++)
-            engagedFinches.set(i, false);
+    void clearEngagementKnowledge() {
+        engagements.clear();
     }
 
     /**
-     * Register the fact that the finch at place has been involved in
-     * a meeting this round.
+     * Register the fact that the finch at the place with the given
+     * index has been involved in a meeting this round.
      *
-     * @require place.getElement() != null
+     * @require world.isOccupied(index)
      */
-    private void engage(World.Place place) {
-        assert place.getElement() != null
+    private void engage(int index) {
+        assert world.isOccupied(index)
             : "Cannot register an empty place as having participated in a meeting.";
-        engagedFinches.set(place.xPosition() * world.height() +
-                           place.yPosition(), true);
+        engagements.engage(index);
     }
 
     /**
-     * Return true if place has already been engaged in a meeting.
+     * Return true if the finch at the place with the given index has
+     * already been engaged in a meeting.
      */
-    private boolean isEngaged(World.Place place) {
-        return engagedFinches.get(place.xPosition() * world.height() + place.yPosition());
+    private boolean isEngaged(int index) {
+        return engagements.isEngaged(index);
     }
     
     /**
-     * Perform a meeting between two finches, letting them act on each
-     * other and inform them of the other finch's action. The actions
-     * will be performed in parallel, not sequentially, so there is no
-     * bias towards providing one finch or the other with information
-     * about what the other finch has done.
+     * Hold the meetings collected in the batch of the context, and
+     * count them. First all finches decide what to do, then they get
+     * the hit points of the meetings, and finally they are told what
+     * was done to them. The actions are performed in parallel, not
+     * sequentially, so there is no bias towards providing one finch
+     * or the other with information about what the other finch has
+     * done.
+     *
+     * @param context The context of the calling thread.
+     * @require The places of each pair are occupied and engaged.
      */
-    private void meet(GalapagosFinch finch1, GalapagosFinch finch2) {
+    void holdMeetings(RoundContext context) {
+        MeetingBatch batch = context.batch;
+        int[] first = batch.first;
+        int[] second = batch.second;
+        byte[] firstActions = batch.firstActions;
+        byte[] secondActions = batch.secondActions;
+        int size = batch.size;
+
         //let both finches decide if they won't to help the other finch
-        Action finch1Action = finch1.decide(finch2);
-        Action finch2Action = finch2.decide(finch1);
-        
-        finch1.changeHitpoints(getMeetingResult(finch1Action, finch2Action));
-        finch2.changeHitpoints(getMeetingResult(finch2Action, finch1Action));
-        
+        for (int i = 0; i < size; i++) {
+            firstActions[i] = decide(first[i], second[i], context);
+            secondActions[i] = decide(second[i], first[i], context);
+        }
+
+        for (int i = 0; i < size; i++) {
+            int action1 = firstActions[i], action2 = secondActions[i];
+            world.changeHitpoints(first[i], payoffs[action1 * 2 + action2]);
+            world.changeHitpoints(second[i], payoffs[action2 * 2 + action1]);
+        }
+
         //tell the finches what was done to them (so they eventually can learn)
-        finch1.response(finch2, finch2Action);
-        finch2.response(finch1, finch1Action);
+        RoundContext.Opponent opponent = context.opponent;
+        for (int i = 0; i < size; i++) {
+            if (strategies[world.behaviorId(first[i])] == StrategyDispatch.DECIDES_ITSELF) {
+                opponent.id = second[i];
+                world.behavior(first[i]).response(opponent, ACTIONS[secondActions[i]]);
+            }
+            if (strategies[world.behaviorId(second[i])] == StrategyDispatch.DECIDES_ITSELF) {
+                opponent.id = first[i];
+                world.behavior(second[i]).response(opponent, ACTIONS[firstActions[i]]);
+            }
+        }
+
+        context.meetings += size;
+        batch.clear();
     }
 
     /**
-     * Get the hit point increase value for performing finch1Action
-     * while having finch2Action performed on you.
+     * Let the finch at the place decide what to do to the finch at
+     * the other place, using the StrategyDispatch. A behavior asked
+     * to decide is shown the opponent of the context as the other
+     * finch.
+     *
+     * @return The ordinal of the action.
      */
-    private int getMeetingResult(Action finch1Action, Action finch2Action) {
-        if (finch1Action == Action.CLEANING) {
-            if (finch2Action == Action.CLEANING) {
-                return HelpedGotHelpValue;
-            }
-            else if (finch2Action == Action.IGNORING) {
-                return HelpedDidntGetHelpValue;
-            }
-        } else if (finch1Action == Action.IGNORING) {
-            if (finch2Action == Action.CLEANING) {
-                return DidntHelpGotHelpValue;
-            }
-            else if (finch2Action == Action.IGNORING) {
-                return DidntHelpDidntGetHelpValue;
-            }
-        }
-        throw new Error("Unhandled Action combination");
+    private byte decide(int index, int otherIndex, RoundContext context) {
+        context.opponent.id = otherIndex;
+        return (byte) StrategyDispatch.decide(strategies[world.behaviorId(index)],
+                                              world.behavior(index), context.opponent,
+                                              context.random);
+    }
+
+    /**
+     * Return the index in payoffs of the hit points a finch gains
+     * from performing ownAction while having otherAction performed
+     * on it.
+     */
+    private static int payoffIndex(Action ownAction, Action otherAction) {
+        return ownAction.ordinal() * 2 + otherAction.ordinal();
+    }
+
+    /**
+     * Set the hit points a finch gains from performing ownAction in
+     * a meeting while having otherAction performed on it. A finch
+     * that meets nobody in a round gains what it would if it ignored
+     * a finch ignoring it.
+     */
+    public void setPayoff(Action ownAction, Action otherAction, int hitpoints) {
+        payoffs[payoffIndex(ownAction, otherAction)] = hitpoints;
+    }
+
+    /**
+     * Return the hit points a finch gains from performing ownAction
+     * in a meeting while having otherAction performed on it.
+     */
+    public int payoff(Action ownAction, Action otherAction) {
+        return payoffs[payoffIndex(ownAction, otherAction)];
     }
     
     /**
-     * Let the Grim Reaper bring his scythe to bear on the finches of
-     * the Biotope, decreasing the hitpoints of all finches by
-     * hitpointsPerRound, and reaping dead finches from the land,
-     * removing them from the mortal world, and registering changes in
-     * statistics.
-     *
-     * @require statisticsTree != null
-     * @require world != null
-     */
-    private void grimReaper () {
-        for (World<GalapagosFinch>.Place p : world)
-            if (p.getElement() != null) {
-                GalapagosFinch finch = p.getElement();
-                finch.changeHitpoints(-hitpointsPerRound);
-                finch.makeOlder();
-                FinchStatus newStatus = finch.status();
-                if (newStatus != FinchStatus.ALIVE) {
-                    Statistics stats = statistics.get(finch.behavior());
-                    if (newStatus == FinchStatus.DEAD_AGE)
-                        stats.incDeadByAge();
-                    else stats.incDeadByTicks();
-                    removeFinch(p);
-                }
+     * Let the Grim Reaper bring his scythe to bear on the finch at the
+     * given place, decreasing its hitpoints by hitpointsPerRound, and
+     * reaping it from the land if it is dead, removing it from the
+     * mortal world, and registering changes in statistics.
+     *
+     * @param index The index of the place.
+     * @param context The context of the calling thread.
+     */
+    void reap (int index, RoundContext context) {
+        if (world.isOccupied(index)) {
+            if (world.behavior(index) instanceof RememberingBehavior) {
+                int evictions = ((RememberingBehavior) world.behavior(index)).takeEvictions();
+                if (evictions > 0)
+                    context.stats[world.behaviorId(index)].addEvictions(evictions);
+            }
+            world.changeHitpoints(index, -hitpointsPerRound);
+            world.makeOlder(index);
+            FinchStatus newStatus = world.status(index);
+            if (newStatus != FinchStatus.ALIVE) {
+                Statistics stat = context.stats[world.behaviorId(index)];
+                if (newStatus == FinchStatus.DEAD_AGE)
+                    stat.incDeadByAge();
+                else stat.incDeadByTicks();
+                removeFinch(index, context.stats, context.neighbours);
             }
+        }
     }
     
     /**
@@ -428,9 +710,7 @@ public class Biotope extends Observable
      * @require behavior must be the name of a known Behavior.
      */
     public Statistics statistics(Behavior behavior) {
-        assert(statistics.containsKey(behavior))
-            : "Asked to retrieve statistics for unknown behavior.";
-        return statistics.get(behavior);
+        return statisticsById[behaviorId(behavior)];
     }
     
     /**
@@ -455,6 +735,13 @@ public class Biotope extends Observable
     public int height() {
         return world.height();
     }
+
+    /**
+     * Return the coordinate system of the biotope world.
+     */
+    public Torus torus() {
+        return world.torus();
+    }
     
     /**
      * Return an iterator for walking through the places of the world
@@ -473,11 +760,316 @@ public class Biotope extends Observable
     }
     
     /**
-     * Notify the observers of the Biotope.
+     * Limit the memory of the finches of a behavior type, both those
+     * in the world and those to come. The evictions are counted in
+     * the statistics of the behavior type when the finches are
+     * reaped.
+     *
+     * @param behaviorType The behavior type.
+     * @param limit The limit, or null for no limit.
+     *
+     * @require behaviors().contains(behaviorType)
+     * @require limit == null || behaviorType instanceof RememberingBehavior
+     */
+    public void setMemoryLimit (Behavior behaviorType, MemoryLimit limit) {
+        assert (limit == null || behaviorType instanceof RememberingBehavior)
+            : behaviorType + " does not remember finches.";
+        int behaviorId = behaviorId(behaviorType);
+        memoryLimits[behaviorId] = limit;
+        if (!(behaviorType instanceof RememberingBehavior))
+            return;
+        for (int index = 0; index < world.size(); index++)
+            if (world.isOccupied(index) && world.behaviorId(index) == behaviorId)
+                ((RememberingBehavior) world.behavior(index)).limitMemory(limit);
+    }
+    
+    /**
+     * Return the memory limit of the finches of a behavior type, or
+     * null if their memory isn't limited.
+     *
+     * @require behaviors().contains(behaviorType)
+     */
+    public MemoryLimit memoryLimit (Behavior behaviorType) {
+        return memoryLimits[behaviorId(behaviorType)];
+    }
+    
+    /**
+     * Add a listener, which is notified of every change of the
+     * Biotope, by the thread making the change.
+     */
+    public void addListener (BiotopeListener listener) {
+        addListener(listener, 1, 0, null);
+    }
+
+    /**
+     * Add a listener, which is notified of the rounds run at most
+     * once every rounds rounds, and at most once every millis
+     * milliseconds. When it is notified it is shown a snapshot of the
+     * latest state of the Biotope, including the rounds it wasn't
+     * notified of. Finches put in the world or taken from it, and
+     * calls to notifyListeners, notify it no matter the rate.
+     *
+     * The snapshots are filled in by the thread changing the Biotope.
+     * If an executor is provided, the listener is then shown the
+     * snapshot asynchronously, by a task handed to the executor. The
+     * listener has two snapshots, one being shown to it while the
+     * other is filled in, so neither thread waits for the other. No
+     * new task is handed over while the last one is still running or
+     * waiting to run, so a slow listener doesn't hold up the rounds,
+     * but just skips the states it has no time to see, and is shown
+     * the latest one when it is done. Otherwise the listener is
+     * notified by the thread changing the Biotope.
+     *
+     * @param listener The listener to add.
+     * @param rounds The least number of rounds between notifications.
+     * @param millis The least number of milliseconds between
+     * notifications.
+     * @param executor The executor notifying the listener, or null.
+     *
+     * @require rounds > 0
+     * @require millis >= 0
+     */
+    public void addListener (BiotopeListener listener, int rounds,
+                             long millis, Executor executor) {
+        assert (rounds > 0 && millis >= 0) : "Invalid notification rate.";
+        listeners.add(new Listening(listener, rounds, millis, executor));
+    }
+
+    /**
+     * Remove a listener from the Biotope. If the listener has been
+     * added more than once, one of the registrations is removed. If
+     * the listener hasn't been added, calling this method is a no-op.
+     * A task already handed to the executor of the listener doesn't
+     * show it anything.
+     */
+    public void removeListener (BiotopeListener listener) {
+        for (Listening listening : listeners)
+            if (listening.listener == listener) {
+                listening.removed = true;
+                listeners.remove(listening);
+                return;
+            }
+    }
+
+    /**
+     * Notify all listeners of the Biotope of its latest state, no
+     * matter the rate they were added with.
+     */
+    public void notifyListeners () {
+        publishChanges();
+    }
+
+    /**
+     * Start a new version of the Biotope, and notify all listeners of
+     * the changes of the last one.
+     */
+    private void publishChanges () {
+        version++;
+        for (Listening listening : listeners)
+            listening.notifyListener();
+    }
+
+    /**
+     * A listener of the Biotope, with the rate it is notified at and
+     * the snapshots shown to it.
+     */
+    private class Listening implements Runnable {
+        private final BiotopeListener listener;
+        private final int rounds;
+        private final long interval;
+        private final Executor executor;
+        private volatile boolean removed;
+
+        /**
+         * The snapshot last shown to the listener, and the one filled
+         * in next, which are swapped when the next one is shown.
+         * Either may be null until it is first filled in. The fields
+         * and flags are guarded by the Listening, which is only held
+         * while swapping.
+         */
+        private BiotopeSnapshot front, back;
+
+        /**
+         * True while a task showing the front snapshot has been
+         * handed to the executor and has not yet returned.
+         */
+        private boolean showing;
+
+        /**
+         * True while the back snapshot is being filled in.
+         */
+        private boolean filling;
+
+        /**
+         * True if the back snapshot has been filled in since it was
+         * last shown.
+         */
+        private boolean ready;
+
+        /**
+         * The round and the time (from System.nanoTime) at which the
+         * listener was last notified.
+         */
+        private int lastRound;
+        private long lastTime;
+
+        private Listening (BiotopeListener listener, int rounds,
+                           long millis, Executor executor) {
+            this.listener = listener;
+            this.rounds = rounds;
+            this.interval = TimeUnit.MILLISECONDS.toNanos(millis);
+            this.executor = executor;
+            lastRound = round;
+            lastTime = System.nanoTime();
+        }
+
+        /**
+         * Return true if enough rounds and time have passed since
+         * the listener was last notified.
+         */
+        private boolean isDue () {
+            return round - lastRound >= rounds
+                && (interval == 0 || System.nanoTime() - lastTime >= interval);
+        }
+
+        /**
+         * Fill in the back snapshot, and show it to the listener, or
+         * hand a task showing it to the executor unless the last task
+         * handed over hasn't returned yet, in which case that task
+         * hands it over when it does.
+         */
+        private void notifyListener () {
+            lastRound = round;
+            if (interval != 0)
+                lastTime = System.nanoTime();
+            if (executor == null) {
+                back = fill(back);
+                listener.biotopeChanged(back);
+                back.shown = true;
+                return;
+            }
+            BiotopeSnapshot snapshot;
+            synchronized (this) {
+                filling = true;
+                snapshot = back;
+            }
+            snapshot = fill(snapshot);
+            boolean handOver;
+            synchronized (this) {
+                back = snapshot;
+                filling = false;
+                handOver = !showing;
+                if (handOver)
+                    swap();
+                else
+                    ready = true;
+            }
+            if (handOver)
+                executor.execute(this);
+        }
+
+        /**
+         * Fill in the snapshot with the latest state of the Biotope,
+         * or create it if it is null.
+         */
+        private BiotopeSnapshot fill (BiotopeSnapshot snapshot) {
+            if (snapshot == null)
+                return new BiotopeSnapshot(Biotope.this);
+            snapshot.update();
+            return snapshot;
+        }
+
+        /**
+         * Make the back snapshot the one shown next.
+         */
+        private void swap () {
+            BiotopeSnapshot snapshot = front;
+            front = back;
+            back = snapshot;
+            showing = true;
+            ready = false;
+        }
+
+        /**
+         * Show the front snapshot to the listener, as a task run by
+         * the executor, and hand the task over again if the back
+         * snapshot has been filled in meanwhile.
+         */
+        public void run () {
+            BiotopeSnapshot snapshot;
+            synchronized (this) {
+                snapshot = front;
+            }
+            if (!removed)
+                listener.biotopeChanged(snapshot);
+            boolean handOver;
+            synchronized (this) {
+                snapshot.shown = true;
+                handOver = ready && !filling;
+                if (handOver)
+                    swap();
+                else
+                    showing = false;
+            }
+            if (handOver)
+                executor.execute(this);
+        }
+    }
+
+    /**
+     * Return the version of the Biotope, which is increased every
+     * time the listeners are notified of changes. Listeners drawing
+     * the world can remember the version they have drawn, and later
+     * only draw the places changed since.
+     */
+    public int version () {
+        return version;
+    }
+
+    /**
+     * Return true if the place at the specified coordinate has got or
+     * lost a finch since the provided version.
+     *
+     * @require 0 <= x < this.width()
+     * @require 0 <= y <= this.height()
+     */
+    public boolean changedSince (int x, int y, int version) {
+        return changeVersions[world.index(x, y)] - version > 0;
+    }
+
+    /**
+     * Return the index of the first place at or after the provided
+     * index that has got or lost a finch since the provided version,
+     * or -1 if there is none. Places are indexed as in the world,
+     * {@code x * height() + y}, so the changed places of the world
+     * are visited in index order by starting at 0 and continuing
+     * after each index returned. Chunks of places without changes
+     * are skipped as a whole.
+     *
+     * @require index >= 0
+     */
+    public int nextChangeSince (int index, int version) {
+        int size = changeVersions.length;
+        while (index < size) {
+            int chunk = index >> CHUNK_SHIFT;
+            int end = Math.min(size, (chunk + 1) << CHUNK_SHIFT);
+            if (chunkVersions[chunk] - version > 0) {
+                for (; index < end; index++)
+                    if (changeVersions[index] - version > 0)
+                        return index;
+            } else
+                index = end;
+        }
+        return -1;
+    }
+
+    /**
+     * Stamp the place, and its chunk, as changed in the coming
+     * version.
      */
-    public void doNotifyObservers () {
-        setChanged();
-        notifyObservers();
+    private void markChanged (int index) {
+        changeVersions[index] = version + 1;
+        chunkVersions[index >> CHUNK_SHIFT] = version + 1;
     }
 
     /**
@@ -522,7 +1114,8 @@ public class Biotope extends Observable
      */
     public class RemoveFinchDescriptor extends FinchDescriptor {
         protected void apply(Biotope biotope) {
-            biotope.removeFinch(world.getAt(x, y));
+            biotope.removeFinch(biotope.world.index(x, y), biotope.statisticsById,
+                                new int[World.NEIGHBOURS]);
         }
     
         /**
@@ -543,9 +1136,10 @@ public class Biotope extends Observable
         protected final Behavior behavior;
 
         protected void apply(Biotope biotope) {
-            World<GalapagosFinch>.Place p = biotope.world.getAt(x, y);
-            biotope.removeFinch(p);
-            biotope.placeFinch(p, behavior, false);
+            int index = biotope.world.index(x, y);
+            biotope.removeFinch(index, biotope.statisticsById, new int[World.NEIGHBOURS]);
+            biotope.placeFinch(index, biotope.behaviorId(behavior), false,
+                               biotope.statisticsById, biotope.random);
         }
     
         /**
@@ -561,6 +1155,6 @@ public class Biotope extends Observable
     public void applyDescriptors(List<FinchDescriptor> descriptors) {
         for (FinchDescriptor descriptor : descriptors)
             descriptor.apply(this);
-        notifyObservers();
+        publishChanges();
     }
 }
@@ -0,0 +1,21 @@
+package galapagos.biotope;
+
+/**
+ * Listens for changes of a Biotope, such as rounds being run or
+ * finches being put in the world or taken from it. A listener is
+ * registered with the rate it wants to be notified at, see
+ * Biotope.addListener, and is not necessarily notified of every
+ * round, so it should look at the latest state it is shown rather
+ * than assume that a single round has passed.
+ */
+public interface BiotopeListener {
+    /**
+     * Called when the Biotope has changed. The listener is shown a
+     * snapshot of the Biotope rather than the Biotope itself, which
+     * may be changing meanwhile. The snapshot is only valid during
+     * the call.
+     *
+     * @param snapshot The state of the Biotope that has changed.
+     */
+    public void biotopeChanged(BiotopeSnapshot snapshot);
+}
@@ -0,0 +1,224 @@
+package galapagos.biotope;
+
+import java.util.*;
+
+/**
+ * A copy of the state of a Biotope, as shown to a BiotopeListener:
+ * the round, the statistics of each behavior type and the behavior
+ * of the finch in each place, along with the places that have got or
+ * lost a finch since the listener was last shown a snapshot.
+ *
+ * The snapshots of a listener are filled in by the thread changing
+ * the Biotope, when it notifies the listener, so a listener notified
+ * on another thread reads its snapshot without holding up the
+ * rounds, and without being held up by them. A snapshot is not
+ * changed while it is shown to a listener.
+ */
+public class BiotopeSnapshot {
+    private final Biotope biotope;
+    private final List<Behavior> behaviors;
+    private final int width, height;
+
+    /**
+     * The behavior id of the finch in each place, or -1 if there is
+     * none, indexed as the places of the Biotope.
+     */
+    private final byte[] behaviorIds;
+
+    /**
+     * Copies of the statistics of the behavior types, indexed by
+     * behavior id.
+     */
+    private final Statistics[] statistics;
+    private int round;
+
+    /**
+     * The version of the Biotope copied, see Biotope.version.
+     */
+    private int version;
+
+    /**
+     * The places changed since the listener was last shown a
+     * snapshot, in index order, unless allChanged is true. When there
+     * are more than a few changes, allChanged is set instead of
+     * recording them, as the listener may as well look at every
+     * place.
+     */
+    private int[] changes;
+    private int changeCount;
+    private boolean allChanged;
+    private final int maxChanges;
+
+    /**
+     * True if the snapshot has been shown to the listener since its
+     * changes were recorded, so they are forgotten when it is filled
+     * in again. Set by the Biotope when the listener has returned.
+     */
+    boolean shown;
+
+    /**
+     * Copy the state of the provided Biotope. All the places of the
+     * snapshot count as changed.
+     *
+     * @require No other thread is changing the Biotope.
+     */
+    public BiotopeSnapshot (Biotope biotope) {
+        this.biotope = biotope;
+        behaviors = Collections.unmodifiableList(biotope.behaviors());
+        width = biotope.width();
+        height = biotope.height();
+        PackedWorld world = biotope.world();
+        behaviorIds = new byte[world.size()];
+        for (int index = 0; index < behaviorIds.length; index++)
+            behaviorIds[index] = (byte) world.behaviorId(index);
+        statistics = new Statistics[behaviors.size()];
+        for (int behaviorId = 0; behaviorId < statistics.length; behaviorId++)
+            statistics[behaviorId] = new Statistics();
+        maxChanges = behaviorIds.length / 8;
+        changes = new int[Math.min(16, maxChanges)];
+        allChanged = true;
+        copyCounts();
+    }
+
+    /**
+     * Copy the places of the Biotope changed since this snapshot was
+     * last filled in, and its round and statistics. The changes are
+     * added to those recorded, unless the snapshot has been shown
+     * since.
+     *
+     * @require No other thread is changing the Biotope.
+     */
+    void update () {
+        if (shown) {
+            changeCount = 0;
+            allChanged = false;
+            shown = false;
+        }
+        PackedWorld world = biotope.world();
+        for (int index = biotope.nextChangeSince(0, version); index >= 0;
+             index = biotope.nextChangeSince(index + 1, version)) {
+            behaviorIds[index] = (byte) world.behaviorId(index);
+            if (!allChanged)
+                recordChange(index);
+        }
+        copyCounts();
+    }
+
+    /**
+     * Copy the round, version and statistics of the Biotope.
+     */
+    private void copyCounts () {
+        round = biotope.round();
+        version = biotope.version();
+        for (int behaviorId = 0; behaviorId < statistics.length; behaviorId++) {
+            statistics[behaviorId].clear();
+            statistics[behaviorId].add(biotope.statistics(behaviors.get(behaviorId)));
+        }
+    }
+
+    /**
+     * Record the place as changed, or all places once there are too
+     * many changes to record. Places recorded in an earlier update
+     * are recorded again, so the changes may not be in index order
+     * after several updates.
+     */
+    private void recordChange (int index) {
+        if (changeCount == maxChanges) {
+            allChanged = true;
+            return;
+        }
+        if (changeCount == changes.length)
+            changes = Arrays.copyOf(changes, Math.min(2 * changes.length, maxChanges));
+        changes[changeCount++] = index;
+    }
+
+    /**
+     * Return the Biotope this is a snapshot of. Its state should be
+     * read from the snapshot, as it may be changing.
+     */
+    public Biotope biotope () {
+        return biotope;
+    }
+
+    /**
+     * Return the round of the Biotope.
+     */
+    public int round () {
+        return round;
+    }
+
+    /**
+     * Return the width of the biotope world in cells.
+     */
+    public int width () {
+        return width;
+    }
+
+    /**
+     * Return the height of the biotope world in cells.
+     */
+    public int height () {
+        return height;
+    }
+
+    /**
+     * Get a list of all the behaviors in the Biotope, indexed by
+     * behavior id. It is not permitted to modify this list.
+     */
+    public List<Behavior> behaviors () {
+        return behaviors;
+    }
+
+    /**
+     * Return the statistics for the specified behavior.
+     *
+     * @require behaviors().contains(behavior)
+     */
+    public Statistics statistics (Behavior behavior) {
+        int behaviorId = behaviors.indexOf(behavior);
+        assert (behaviorId >= 0) : "Unknown behavior " + behavior;
+        return statistics[behaviorId];
+    }
+
+    /**
+     * Return the behavior id of the finch in the place with the
+     * specified index, which is the index of its behavior type in
+     * behaviors(), or -1 if there is no finch there. Places are
+     * indexed as in the Biotope, {@code x * height() + y}.
+     *
+     * @require 0 <= index < width() * height()
+     */
+    public int behaviorId (int index) {
+        return behaviorIds[index];
+    }
+
+    /**
+     * Return true if every place should be considered changed, as
+     * the listener hasn't been shown a snapshot before, or too many
+     * places have changed to record them.
+     */
+    public boolean allChanged () {
+        return allChanged;
+    }
+
+    /**
+     * Return the number of places recorded as changed since the
+     * listener was last shown a snapshot.
+     *
+     * @require !allChanged()
+     */
+    public int changeCount () {
+        return changeCount;
+    }
+
+    /**
+     * Return the index of a place recorded as changed. A place may be
+     * recorded more than once.
+     *
+     * @require !allChanged()
+     * @require 0 <= i < changeCount()
+     */
+    public int change (int i) {
+        return changes[i];
+    }
+}
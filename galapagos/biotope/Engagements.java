@@ -0,0 +1,86 @@
+package galapagos.biotope;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Keeps track of which places have been engaged in a meeting this
+ * round. Each place holds the number of the round it was last engaged
+ * in, so forgetting all engagements at the start of a round only
+ * takes a new round number, however large the world is.
+ *
+ * Places can be claimed with compare-and-set, so threads meeting
+ * finches at the same time never engage a place twice.
+ */
+public final class Engagements {
+    private final AtomicIntegerArray stamps;
+    private int epoch;
+
+    /**
+     * Create Engagements for the provided number of places, none of
+     * them engaged.
+     */
+    public Engagements(int size) {
+        stamps = new AtomicIntegerArray(size);
+        epoch = 1;
+    }
+
+    /**
+     * Forget all engagements.
+     *
+     * Must not be called while other threads use this object.
+     */
+    public void clear() {
+        if (epoch == Integer.MAX_VALUE) {
+            // Old stamps could be mistaken for the new epoch after a
+            // wrap-around, so start over.
+            for (int i = 0; i < stamps.length(); i++)
+                stamps.lazySet(i, 0);
+            epoch = 0;
+        }
+        epoch++;
+    }
+
+    /**
+     * Return true if the place with the given index is engaged.
+     */
+    public boolean isEngaged(int index) {
+        return stamps.get(index) == epoch;
+    }
+
+    /**
+     * Engage the place with the given index. For use by a single
+     * thread, or by threads working on disjoint places.
+     */
+    public void engage(int index) {
+        stamps.lazySet(index, epoch);
+    }
+
+    /**
+     * Engage the place with the given index, unless it is already
+     * engaged. Safe to call from several threads at once.
+     *
+     * @return true if this call engaged the place.
+     */
+    public boolean tryEngage(int index) {
+        int stamp = stamps.get(index);
+        return stamp != epoch && stamps.compareAndSet(index, stamp, epoch);
+    }
+
+    /**
+     * Engage both places with the given indices, unless one of them
+     * is already engaged, in which case neither is. Safe to call from
+     * several threads at once.
+     *
+     * @return true if this call engaged both places.
+     * @require index1 != index2
+     */
+    public boolean tryEngage(int index1, int index2) {
+        int stamp = stamps.get(index1);
+        if (stamp == epoch || !stamps.compareAndSet(index1, stamp, epoch))
+            return false;
+        if (tryEngage(index2))
+            return true;
+        stamps.set(index1, stamp);
+        return false;
+    }
+}
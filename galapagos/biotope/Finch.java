@@ -38,4 +38,12 @@ package galapagos.biotope;
  * <p>(Source: <a href="http://en.wikipedia.org/wiki/Finch">Wikipedia</a>)</p>
  */
 public interface Finch {
+    /**
+     * A number identifying this finch among the finches it can meet.
+     * Behaviors use it to remember the finches they have met. A
+     * finch in a Biotope has the index of its place as id, which is
+     * reused by the next finch at the place once the Biotope has made
+     * the neighbours of the place forget the finch.
+     */
+    public int id ();
 }
\ No newline at end of file
@@ -1,10 +1,19 @@
 package galapagos.biotope;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
 /**
  * A finch.
  */
 public class GalapagosFinch implements Finch {
-  
+    /**
+     * The id of the last finch created outside of a world. These ids
+     * are negative, so they never clash with the ids of the finches
+     * of a world, which are place indices.
+     */
+    private static final AtomicInteger lastId = new AtomicInteger();
+
+    private final int id;
     private int hitpoints;
     private final int maxHitpoints;
     private int age;
@@ -16,12 +25,34 @@ public class GalapagosFinch implements Finch {
      * Make er new finch with specified hitpoints, maximal age and behavior.
      */
     public GalapagosFinch (int hitpoints, int maxHitpoints, int maxAge, Behavior behavior) {
+        this(lastId.decrementAndGet(), hitpoints, maxHitpoints, maxAge, behavior);
+    }
+
+    private GalapagosFinch (int id, int hitpoints, int maxHitpoints, int maxAge,
+                            Behavior behavior) {
+        this.id = id;
         this.hitpoints = hitpoints;
         this.maxHitpoints = maxHitpoints;
         this.age = 0;
         this.maxAge = maxAge;
         this.behavior = behavior;
     }
+
+    /**
+     * Make a finch with the provided id whose state is kept
+     * elsewhere. Subclasses using this constructor must override
+     * every query and command.
+     */
+    GalapagosFinch (int id, Behavior behavior) {
+        this(id, 0, 0, 0, behavior);
+    }
+
+    /**
+     * @inheritDoc
+     */
+    public int id () {
+        return id;
+    }
   
     /**
      * What this finch chooses to do to the finch it has met.
@@ -62,6 +93,13 @@ public class GalapagosFinch implements Finch {
         return age;
     }
     
+    /**
+     * The age at which this finch dies.
+     */
+    public int maxAge () {
+        return maxAge;
+    }
+    
     /**
      * Return the amount of hit points this finch currently has.
      */
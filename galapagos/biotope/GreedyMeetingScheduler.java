@@ -0,0 +1,22 @@
+package galapagos.biotope;
+
+/**
+ * The default MeetingScheduler. The places of the world are visited
+ * in random order, and each finch not yet engaged meets a random one
+ * of its neighbours that isn't engaged either. The meetings are held
+ * when all finches have been paired. Runs in the calling
+ * thread, drawing from the random generator of the Biotope.
+ */
+public class GreedyMeetingScheduler implements MeetingScheduler {
+    /**
+     * @inheritDoc
+     */
+    public void makeMeetings(Biotope biotope) {
+        RoundContext context = new RoundContext(biotope.statisticsById(), biotope.random());
+        biotope.clearEngagementKnowledge();
+        for (int index : biotope.world().randomOrder())
+            biotope.meet(index, context);
+        biotope.holdMeetings(context);
+        biotope.countMeetings(context);
+    }
+}
@@ -0,0 +1,280 @@
+package galapagos.biotope;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * A MeetingScheduler computing a random maximal matching of the
+ * finches of the world in parallel, in the manner of Luby's
+ * algorithm, and then letting the matched pairs meet in batches.
+ *
+ * The places of the world are split into blocks of consecutive
+ * indices, which are worked on in parallel. In each iteration every
+ * finch that is still unmatched and has unmatched neighbours draws a
+ * random priority and chooses its unmatched neighbour of highest
+ * priority. Two finches that choose each other are matched. The
+ * finch of highest priority is always chosen back, so every
+ * iteration matches at least one pair, and in practice a large part
+ * of the remaining finches. The iterations stop when no unmatched
+ * finch has an unmatched neighbour.
+ *
+ * As with the TiledRoundEngine, every block gets its own random
+ * generator, split from the generator of the Biotope in a fixed
+ * order, so the meetings are the same no matter how many threads the
+ * pool has.
+ */
+public class MatchingMeetingScheduler implements MeetingScheduler {
+    private static final int CHOOSE = 0, MATCH = 1, SETTLE = 2, MEET = 3;
+
+    /**
+     * The priority of a place which takes no more part in the
+     * matching. Lower than any drawn priority.
+     */
+    private static final long INACTIVE = Long.MIN_VALUE;
+
+    private final ForkJoinPool pool;
+    private final int blockSize;
+
+    private World<?> blockedWorld;
+    private Block[] blocks;
+
+    /**
+     * The priority of each place in the current iteration.
+     */
+    private long[] priorities;
+
+    /**
+     * The neighbour chosen by each place in the current iteration,
+     * or -1.
+     */
+    private int[] choices;
+
+    /**
+     * Create a MatchingMeetingScheduler using the common ForkJoinPool
+     * and blocks of 1024 places.
+     */
+    public MatchingMeetingScheduler() {
+        this(ForkJoinPool.commonPool(), 1024);
+    }
+
+    /**
+     * Create a MatchingMeetingScheduler.
+     *
+     * @param pool The pool running the blocks.
+     * @param blockSize The number of places in a block.
+     *
+     * @require blockSize > 0
+     */
+    public MatchingMeetingScheduler(ForkJoinPool pool, int blockSize) {
+        assert (blockSize > 0) : "Blocks must have places.";
+        this.pool = pool;
+        this.blockSize = blockSize;
+    }
+
+    /**
+     * @inheritDoc
+     */
+    public void makeMeetings(Biotope biotope) {
+        PackedWorld world = biotope.world();
+        if (world != blockedWorld)
+            makeBlocks(world);
+        biotope.clearEngagementKnowledge();
+        for (Block block : blocks)
+            block.prepare(biotope, biotope.random().split());
+
+        while (isMatching()) {
+            run(CHOOSE);
+            run(MATCH);
+            run(SETTLE);
+        }
+
+        run(MEET);
+        for (Block block : blocks)
+            biotope.countMeetings(block.context);
+    }
+
+    /**
+     * Return true if some unmatched finch may still be matched.
+     */
+    private boolean isMatching() {
+        for (Block block : blocks)
+            if (block.activeCount > 0)
+                return true;
+        return false;
+    }
+
+    /**
+     * Run a step on all blocks in parallel, and wait for all of them
+     * to finish.
+     */
+    private void run(final int step) {
+        if (blocks.length == 1) {
+            blocks[0].run(step);
+            return;
+        }
+        pool.invoke(new RecursiveAction() {
+                protected void compute() {
+                    List<RecursiveAction> tasks = new ArrayList<RecursiveAction>(blocks.length);
+                    for (final Block block : blocks)
+                        tasks.add(new RecursiveAction() {
+                                protected void compute() {
+                                    block.run(step);
+                                }
+                            });
+                    invokeAll(tasks);
+                }
+            });
+    }
+
+    /**
+     * Split the world into blocks.
+     */
+    private void makeBlocks(World<?> world) {
+        int size = world.size();
+        int count = Math.max(1, size / blockSize);
+        blocks = new Block[count];
+        for (int b = 0; b < count; b++)
+            blocks[b] = new Block(b * size / count, (b + 1) * size / count);
+        priorities = new long[size];
+        choices = new int[size];
+        blockedWorld = world;
+    }
+
+    /**
+     * A range of places, with its own list of unmatched finches, and
+     * its own RoundContext collecting the matched pairs.
+     */
+    private class Block {
+        private final int start, end;
+
+        /**
+         * The places of the block that may still be matched.
+         */
+        private final int[] active;
+        private int activeCount;
+
+        private Biotope biotope;
+        private PackedWorld world;
+        private Engagements engagements;
+        private RoundContext context;
+
+        private Block(int start, int end) {
+            this.start = start;
+            this.end = end;
+            active = new int[end - start];
+        }
+
+        /**
+         * Make the block ready for the meetings of a round of the
+         * provided Biotope, activating the finches of the block.
+         */
+        private void prepare(Biotope biotope, SplittableRandom random) {
+            this.biotope = biotope;
+            world = biotope.world();
+            engagements = biotope.engagements();
+            context = new RoundContext(biotope.statisticsById(), random);
+
+            activeCount = 0;
+            for (int index = start; index < end; index++)
+                if (world.isOccupied(index)) {
+                    active[activeCount++] = index;
+                    priorities[index] = drawPriority(index);
+                } else
+                    priorities[index] = INACTIVE;
+        }
+
+        /**
+         * Draw a random priority for the place. The index is part of
+         * the priority, so no two places get the same one, and the
+         * priority is never negative, so it is above INACTIVE.
+         */
+        private long drawPriority(int index) {
+            return ((long) (context.random.nextInt() >>> 1) << 32) | index;
+        }
+
+        /**
+         * Run a step of the meetings on this block.
+         */
+        private void run(int step) {
+            switch (step) {
+            case CHOOSE:
+                choose();
+                break;
+            case MATCH:
+                match();
+                break;
+            case SETTLE:
+                settle();
+                break;
+            default:
+                meet();
+            }
+        }
+
+        /**
+         * Let each active place choose its active neighbour of
+         * highest priority.
+         */
+        private void choose() {
+            int[] neighbours = context.neighbours;
+            for (int i = 0; i < activeCount; i++) {
+                int index = active[i];
+                int choice = -1;
+                long best = INACTIVE;
+                world.neighbours(index, neighbours);
+                for (int k = 0; k < World.NEIGHBOURS; k++) {
+                    int neighbour = neighbours[k];
+                    if (neighbour != index && priorities[neighbour] > best) {
+                        choice = neighbour;
+                        best = priorities[neighbour];
+                    }
+                }
+                choices[index] = choice;
+            }
+        }
+
+        /**
+         * Match the places that chose each other. The block of the
+         * lower index of a pair adds it to the meetings of its
+         * context.
+         */
+        private void match() {
+            for (int i = 0; i < activeCount; i++) {
+                int index = active[i];
+                int choice = choices[index];
+                if (choice > index && choices[choice] == index
+                    && engagements.tryEngage(index, choice))
+                    context.batch.add(index, choice);
+            }
+        }
+
+        /**
+         * Deactivate the places that were matched or have no active
+         * neighbours left, and draw new priorities for the rest.
+         */
+        private void settle() {
+            int kept = 0;
+            for (int i = 0; i < activeCount; i++) {
+                int index = active[i];
+                if (choices[index] < 0 || engagements.isEngaged(index))
+                    priorities[index] = INACTIVE;
+                else {
+                    active[kept++] = index;
+                    priorities[index] = drawPriority(index);
+                }
+            }
+            activeCount = kept;
+        }
+
+        /**
+         * Let the matched pairs meet, and the unmatched finches of
+         * the block go without a meeting.
+         */
+        private void meet() {
+            biotope.holdMeetings(context);
+            for (int index = start; index < end; index++)
+                if (world.isOccupied(index) && !engagements.isEngaged(index))
+                    biotope.meetNobody(index);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package galapagos.biotope;
+
+/**
+ * The pairs of places whose finches are to meet, collected so that
+ * the Biotope can hold all the meetings in one go: first all
+ * decisions, then all payoffs, then all responses. As a finch meets
+ * at most one neighbour in a round, holding the meetings this way
+ * gives the same result as holding them one after the other.
+ *
+ * The actions are stored as ordinals of Action.
+ */
+class MeetingBatch {
+    int[] first = new int[16];
+    int[] second = new int[16];
+    byte[] firstActions = new byte[16];
+    byte[] secondActions = new byte[16];
+    int size;
+
+    /**
+     * Add a pair of places to the batch.
+     */
+    void add(int index1, int index2) {
+        if (size == first.length) {
+            int capacity = 2 * size;
+            first = java.util.Arrays.copyOf(first, capacity);
+            second = java.util.Arrays.copyOf(second, capacity);
+            firstActions = new byte[capacity];
+            secondActions = new byte[capacity];
+        }
+        first[size] = index1;
+        second[size] = index2;
+        size++;
+    }
+
+    /**
+     * Remove all pairs from the batch.
+     */
+    void clear() {
+        size = 0;
+    }
+}
@@ -0,0 +1,19 @@
+package galapagos.biotope;
+
+/**
+ * Decides which finches of a Biotope meet each other in a round, and
+ * makes them meet. Every finch meets at most one of its neighbours,
+ * and a finch that meets nobody gains a hit point, as if it had met a
+ * finch and neither had cleaned the other.
+ *
+ * A RoundEngine uses a MeetingScheduler for the meeting step of the
+ * round, between breeding and reaping.
+ */
+public interface MeetingScheduler {
+    /**
+     * Make the finches of the Biotope meet for this round.
+     *
+     * @param biotope The Biotope whose finches should meet.
+     */
+    public void makeMeetings(Biotope biotope);
+}
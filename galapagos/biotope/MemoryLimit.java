@@ -0,0 +1,69 @@
+package galapagos.biotope;
+
+/**
+ * A limit on the number of finches a RememberingBehavior may
+ * remember at a time, and the way it chooses which finch to forget
+ * when it has to remember one more.
+ */
+public class MemoryLimit {
+    /**
+     * The ways of choosing the finch to forget.
+     */
+    public enum Eviction {
+        /**
+         * Forget the finch that was remembered or recalled longest
+         * ago.
+         */
+        LEAST_RECENTLY_USED,
+
+        /**
+         * Forget the finch that has been remembered or recalled the
+         * fewest times, and of those, the one that was remembered
+         * first.
+         */
+        LEAST_FREQUENTLY_USED,
+
+        /**
+         * Forget the finch that was remembered first.
+         */
+        OLDEST
+    }
+
+    private final int capacity;
+    private final Eviction eviction;
+
+    /**
+     * Create a MemoryLimit.
+     *
+     * @param capacity The number of finches that can be remembered.
+     * @param eviction How to choose the finch to forget.
+     * @require capacity > 0 && eviction != null
+     */
+    public MemoryLimit(int capacity, Eviction eviction) {
+        assert (capacity > 0) : "A memory must have room for a finch.";
+        assert (eviction != null) : "An eviction policy is needed.";
+        this.capacity = capacity;
+        this.eviction = eviction;
+    }
+
+    /**
+     * The number of finches that can be remembered.
+     */
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * How to choose the finch to forget.
+     */
+    public Eviction eviction() {
+        return eviction;
+    }
+
+    /**
+     * @inheritDoc
+     */
+    public String toString() {
+        return capacity + " " + eviction;
+    }
+}
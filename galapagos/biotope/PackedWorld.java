@@ -0,0 +1,318 @@
+package galapagos.biotope;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A torus world of finches which keeps the state of its finches in
+ * parallel primitive arrays, indexed by place index, instead of in a
+ * Place and a GalapagosFinch object per cell. The behavior of a
+ * finch is identified by its behavior id, its index in the list of
+ * behavior types the world was created with, and an empty place has
+ * the behavior id -1.
+ *
+ * The World.Place API is still available as a view of the arrays. A
+ * GalapagosFinch object for a finch is only created when it is asked
+ * for (by getElement() or finchAt()), which the rounds never do, and
+ * is then kept for as long as the finch lives, so the same finch is
+ * always represented by the same object. When a finch leaves the
+ * world its GalapagosFinch object keeps the state the finch had at
+ * that time.
+ */
+public class PackedWorld extends World<GalapagosFinch> {
+    private final List<Behavior> behaviorTypes;
+    private final int maxHitpoints;
+
+    private final byte[] behaviorIds;
+    private final int[] hitpoints;
+    private final int[] ages;
+    private final int[] maxAges;
+    private final Behavior[] behaviors;
+
+    /**
+     * The GalapagosFinch objects handed out for finches still in the
+     * world, by place index. Concurrent, as finches may leave the
+     * world from several threads in a round.
+     */
+    private final Map<Integer, PackedFinch> finches = new ConcurrentHashMap<Integer, PackedFinch>();
+
+    /**
+     * Create an empty world of size worldWidth * worldHeight.
+     *
+     * @param maxHitpoints The maximum number of hit points the
+     * finches of this world can have.
+     * @param behaviorTypes The behavior types of the finches in this
+     * world. A behavior id is an index in this list.
+     *
+     * @require behaviorTypes.size() <= Byte.MAX_VALUE + 1
+     */
+    public PackedWorld(int worldWidth, int worldHeight, int maxHitpoints,
+                       List<Behavior> behaviorTypes) {
+        this(worldWidth, worldHeight, maxHitpoints, behaviorTypes, new SplittableRandom());
+    }
+
+    /**
+     * Create an empty world of size worldWidth * worldHeight, using
+     * the provided random generator.
+     *
+     * @see #PackedWorld(int, int, int, List)
+     * @see World#World(int, int, SplittableRandom)
+     */
+    public PackedWorld(int worldWidth, int worldHeight, int maxHitpoints,
+                       List<Behavior> behaviorTypes, SplittableRandom random) {
+        super(worldWidth, worldHeight, random);
+        assert (behaviorTypes.size() <= Byte.MAX_VALUE + 1)
+            : "Too many behavior types for a PackedWorld.";
+        this.behaviorTypes = new ArrayList<Behavior>(behaviorTypes);
+        this.maxHitpoints = maxHitpoints;
+        int size = worldWidth * worldHeight;
+        behaviorIds = new byte[size];
+        Arrays.fill(behaviorIds, (byte) -1);
+        hitpoints = new int[size];
+        ages = new int[size];
+        maxAges = new int[size];
+        behaviors = new Behavior[size];
+    }
+
+    /**
+     * Return the behavior id of the given behavior type.
+     *
+     * @return The id, or -1 if the behavior type is unknown.
+     */
+    public int behaviorId(Behavior behaviorType) {
+        return behaviorTypes.indexOf(behaviorType);
+    }
+
+    /**
+     * Put a new finch with age 0 at the place with the given index,
+     * replacing any finch already there.
+     *
+     * @param index The index of the place.
+     * @param behaviorId The behavior id of the finch.
+     * @param behavior The behavior object of the finch.
+     * @param hitpoints The hit points of the finch.
+     * @param maxAge The age at which the finch dies.
+     */
+    public void place(int index, int behaviorId, Behavior behavior,
+                      int hitpoints, int maxAge) {
+        remove(index);
+        behaviorIds[index] = (byte) behaviorId;
+        behaviors[index] = behavior;
+        this.hitpoints[index] = hitpoints;
+        ages[index] = 0;
+        maxAges[index] = maxAge;
+    }
+
+    /**
+     * Remove the finch at the place with the given index. If there is
+     * no finch at the place, calling this method is a no-op.
+     */
+    public void remove(int index) {
+        if (behaviorIds[index] < 0)
+            return;
+        if (!finches.isEmpty()) {
+            PackedFinch finch = finches.remove(index);
+            if (finch != null)
+                finch.leave();
+        }
+        behaviorIds[index] = -1;
+        behaviors[index] = null;
+    }
+
+    /**
+     * @inheritDoc
+     */
+    public boolean isOccupied(int index) {
+        return behaviorIds[index] >= 0;
+    }
+
+    /**
+     * The behavior id of the finch at the given index, or -1 if the
+     * place is empty.
+     */
+    public int behaviorId(int index) {
+        return behaviorIds[index];
+    }
+
+    /**
+     * The behavior of the finch at the given index.
+     *
+     * @require isOccupied(index)
+     */
+    public Behavior behavior(int index) {
+        return behaviors[index];
+    }
+
+    /**
+     * The hit points of the finch at the given index.
+     *
+     * @require isOccupied(index)
+     */
+    public int hitpoints(int index) {
+        return hitpoints[index];
+    }
+
+    /**
+     * The age of the finch at the given index.
+     *
+     * @require isOccupied(index)
+     */
+    public int age(int index) {
+        return ages[index];
+    }
+
+    /**
+     * The age at which the finch at the given index dies.
+     *
+     * @require isOccupied(index)
+     */
+    public int maxAge(int index) {
+        return maxAges[index];
+    }
+
+    /**
+     * Change the hit points of the finch at the given index by the
+     * specified amount, never exceeding the maximum.
+     *
+     * @require isOccupied(index)
+     */
+    public void changeHitpoints(int index, int change) {
+        int newHitpoints = hitpoints[index] + change;
+        hitpoints[index] = newHitpoints > maxHitpoints ? maxHitpoints : newHitpoints;
+    }
+
+    /**
+     * Make the finch at the given index older.
+     *
+     * @require isOccupied(index)
+     */
+    public void makeOlder(int index) {
+        ages[index]++;
+    }
+
+    /**
+     * Is the finch at the given index dead or alive?
+     *
+     * @require isOccupied(index)
+     */
+    public FinchStatus status(int index) {
+        if (hitpoints[index] <= 0) return FinchStatus.DEAD_TICKS;
+        if (ages[index] >= maxAges[index]) return FinchStatus.DEAD_AGE;
+        else return FinchStatus.ALIVE;
+    }
+
+    /**
+     * Return the GalapagosFinch object representing the finch at the
+     * given index, or null if the place is empty.
+     */
+    public GalapagosFinch finchAt(int index) {
+        if (behaviorIds[index] < 0)
+            return null;
+        PackedFinch finch = finches.get(index);
+        if (finch == null) {
+            finch = new PackedFinch(index);
+            finches.put(index, finch);
+        }
+        return finch;
+    }
+
+    /**
+     * @inheritDoc
+     */
+    protected GalapagosFinch elementAt(int index) {
+        return finchAt(index);
+    }
+
+    /**
+     * Store the state of the provided finch at the place with the
+     * given index. The finch's state is copied, so later changes to
+     * the provided object are not seen by the world.
+     *
+     * @require element == null || behaviorId(element.behavior()) >= 0
+     */
+    protected void setElementAt(int index, GalapagosFinch element) {
+        if (element == null) {
+            remove(index);
+            return;
+        }
+        int behaviorId = behaviorId(element.behavior());
+        assert (behaviorId >= 0) : "Unknown behavior " + element.behavior();
+        place(index, behaviorId, element.behavior(), element.hitpoints(), element.maxAge());
+        ages[index] = element.age();
+    }
+
+    /**
+     * A GalapagosFinch whose state lives in the arrays of the
+     * PackedWorld for as long as it is in the world. When it leaves,
+     * the state it had is copied into the object.
+     */
+    private class PackedFinch extends GalapagosFinch {
+        private final int index;
+        private final Behavior behavior;
+        private boolean resident;
+        private int hitpoints, age, maxAge;
+
+        private PackedFinch(int index) {
+            super(index, behaviors[index]);
+            this.index = index;
+            this.behavior = behaviors[index];
+            this.resident = true;
+        }
+
+        /**
+         * Copy the state of the finch out of the arrays.
+         */
+        private void leave() {
+            hitpoints = PackedWorld.this.hitpoints[index];
+            age = ages[index];
+            maxAge = maxAges[index];
+            resident = false;
+        }
+
+        public Action decide(Finch finch) {
+            return behavior.decide(finch);
+        }
+
+        public FinchStatus status() {
+            if (resident)
+                return PackedWorld.this.status(index);
+            if (hitpoints <= 0) return FinchStatus.DEAD_TICKS;
+            if (age >= maxAge) return FinchStatus.DEAD_AGE;
+            else return FinchStatus.ALIVE;
+        }
+
+        public void changeHitpoints(int change) {
+            if (resident)
+                PackedWorld.this.changeHitpoints(index, change);
+            else
+                hitpoints = Math.min(hitpoints + change, maxHitpoints);
+        }
+
+        public void makeOlder() {
+            if (resident)
+                ages[index]++;
+            else
+                age++;
+        }
+
+        public int age() {
+            return resident ? ages[index] : age;
+        }
+
+        public int maxAge() {
+            return resident ? maxAges[index] : maxAge;
+        }
+
+        public int hitpoints() {
+            return resident ? PackedWorld.this.hitpoints[index] : hitpoints;
+        }
+
+        public void response(Finch finch, Action action) {
+            behavior.response(finch, action);
+        }
+
+        public Behavior behavior() {
+            return behavior;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package galapagos.biotope;
+
+import java.util.SplittableRandom;
+
+/**
+ * A finch behavior whose decisions involve chance. The Biotope
+ * provides such behaviors with its own random generator when they
+ * decide, so that a simulation can be replayed from its seed.
+ */
+public interface RandomBehavior extends Behavior {
+    /**
+     * Let this Behavior decide whether it wants to clean or ignore a
+     * given finch, drawing any random numbers from the provided
+     * generator.
+     *
+     * @param finch The finch to make a decision about.
+     * @param random The random generator to use.
+     * @return The chosen action.
+     */
+    public Action decide (Finch finch, SplittableRandom random);
+
+    /**
+     * The generators drawn from when a RandomBehavior decides without
+     * being given one, which the Biotope never does, as it provides
+     * its own. Every thread has a generator of its own, so a behavior
+     * keeps none itself, and may be shared by finches deciding on
+     * several threads.
+     */
+    public static final class Fallback {
+        private static final ThreadLocal<SplittableRandom> RANDOM =
+            new ThreadLocal<SplittableRandom>() {
+                protected SplittableRandom initialValue() {
+                    return new SplittableRandom();
+                }
+            };
+
+        private Fallback() {
+        }
+
+        /**
+         * Return the generator of the current thread.
+         */
+        public static SplittableRandom random() {
+            return RANDOM.get();
+        }
+    }
+}
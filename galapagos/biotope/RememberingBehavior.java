@@ -0,0 +1,37 @@
+package galapagos.biotope;
+
+/**
+ * A finch behavior that remembers the finches it has met. When a
+ * finch leaves the Biotope, its neighbours are told to forget it, so
+ * that they neither keep memory about finches they will never meet
+ * again nor mistake the next finch at the place for the old one.
+ *
+ * The memory can be limited, in which case the behavior forgets a
+ * finch, an eviction, whenever it has to remember one more than the
+ * limit allows. The Biotope collects the number of evictions for its
+ * statistics.
+ */
+public interface RememberingBehavior extends Behavior {
+    /**
+     * Forget everything about the finch with the provided id.
+     *
+     * @param finchId The id of the finch to forget.
+     * @ensure Nothing is remembered about the finch.
+     */
+    public void forget (int finchId);
+
+    /**
+     * Limit the number of finches this behavior remembers from now
+     * on. If more finches are already remembered, they are forgotten
+     * the next time a finch is remembered.
+     *
+     * @param limit The limit, or null for no limit.
+     */
+    public void limitMemory (MemoryLimit limit);
+
+    /**
+     * Return the number of finches forgotten to make room for other
+     * finches since the last call of this method.
+     */
+    public int takeEvictions ();
+}
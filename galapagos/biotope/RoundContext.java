@@ -0,0 +1,70 @@
+package galapagos.biotope;
+
+import java.util.SplittableRandom;
+
+/**
+ * The state a RoundEngine hands to the Biotope when it works on a
+ * place: where to count statistics, where to draw random numbers
+ * from, a buffer for neighbour indices, and the meetings waiting to
+ * be held. A RoundContext must only
+ * be used by one thread at a time, so engines running several threads
+ * give each thread its own.
+ */
+class RoundContext {
+    /**
+     * The statistics to update, indexed by behavior id.
+     */
+    final Statistics[] stats;
+
+    /**
+     * The random generator to use.
+     */
+    SplittableRandom random;
+
+    /**
+     * A buffer for the indices of the neighbours of a place.
+     */
+    final int[] neighbours = new int[World.NEIGHBOURS];
+
+    /**
+     * The meetings arranged using this context, waiting to be held.
+     */
+    final MeetingBatch batch = new MeetingBatch();
+
+    /**
+     * The finch shown to behaviors as the one they meet. Behaviors
+     * tell finches apart by their id only, so the Biotope uses this
+     * one object for every finch met through this context, and sets
+     * its id to the place of the finch before each call.
+     */
+    final Opponent opponent = new Opponent();
+
+    /**
+     * The number of meetings held using this context since it was
+     * last counted by the Biotope.
+     */
+    long meetings;
+
+    /**
+     * Create a RoundContext counting in the provided statistics and
+     * drawing from the provided random generator.
+     */
+    RoundContext(Statistics[] stats, SplittableRandom random) {
+        this.stats = stats;
+        this.random = random;
+    }
+
+    /**
+     * A Finch that is only an id.
+     */
+    static class Opponent implements Finch {
+        int id;
+
+        /**
+         * @inheritDoc
+         */
+        public int id() {
+            return id;
+        }
+    }
+}
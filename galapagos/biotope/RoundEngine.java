@@ -0,0 +1,17 @@
+package galapagos.biotope;
+
+/**
+ * A strategy for running the steps of a round of a Biotope: letting
+ * the finches breed, arranging meetings between them and letting the
+ * Grim Reaper take the dead ones. A RoundEngine decides the order in
+ * which the places of the world are visited, and may visit them from
+ * several threads.
+ */
+public interface RoundEngine {
+    /**
+     * Run the breeding, meeting and reaping steps of a round of the
+     * provided Biotope. Updating the round counter and notifying
+     * listeners is left to the Biotope.
+     */
+    public void runRound(Biotope biotope);
+}
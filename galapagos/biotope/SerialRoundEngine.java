@@ -0,0 +1,44 @@
+package galapagos.biotope;
+
+/**
+ * The default RoundEngine, visiting all places of the world in a new
+ * random order in each step of the round, in the calling thread. All
+ * randomness is drawn from the random generator of the Biotope.
+ *
+ * The meetings are left to a MeetingScheduler, by default a
+ * GreedyMeetingScheduler.
+ */
+public class SerialRoundEngine implements RoundEngine {
+    private final MeetingScheduler scheduler;
+
+    /**
+     * Create a SerialRoundEngine with a GreedyMeetingScheduler.
+     */
+    public SerialRoundEngine() {
+        this(new GreedyMeetingScheduler());
+    }
+
+    /**
+     * Create a SerialRoundEngine using the provided MeetingScheduler
+     * for the meetings.
+     */
+    public SerialRoundEngine(MeetingScheduler scheduler) {
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * @inheritDoc
+     */
+    public void runRound(Biotope biotope) {
+        PackedWorld world = biotope.world();
+        RoundContext context = new RoundContext(biotope.statisticsById(), biotope.random());
+
+        for (int index : world.randomOrder())
+            biotope.breed(index, context);
+
+        scheduler.makeMeetings(biotope);
+
+        for (int index = 0; index < world.size(); index++)
+            biotope.reap(index, context);
+    }
+}
@@ -0,0 +1,10 @@
+package galapagos.biotope;
+
+/**
+ * A behavior that keeps no state between meetings, so that a single
+ * instance can act for all finches of its type. The Biotope gives the
+ * finches of such behaviors the behavior type itself instead of a
+ * clone of it.
+ */
+public interface StatelessBehavior extends Behavior {
+}
@@ -11,11 +11,13 @@ public class Statistics {
     private int born;
     private int deadByAge;
     private int deadByTicks;
+    private int evictions;
     
     // Variables reset each round.
     private int bornThisRound;
     private int deadByAgeThisRound;
     private int deadByTicksThisRound;
+    private int evictionsThisRound;
     
     /**
      * Create statistics about a finch type.
@@ -25,9 +27,11 @@ public class Statistics {
         born = 0;
         deadByAge = 0;
         deadByTicks = 0;
+        evictions = 0;
         bornThisRound = 0;
         deadByAgeThisRound = 0;
         deadByTicksThisRound = 0;
+        evictionsThisRound = 0;
     }
     
     /**
@@ -40,7 +44,9 @@ public class Statistics {
         DEAD_AGE_THIS_ROUND ("Dead by age"),
         BORN_TOTAL ("Total born"),
         DEAD_TICKS_TOTAL ("Total dead by ticks"),
-        DEAD_AGE_TOTAL ("Total dead by age");
+        DEAD_AGE_TOTAL ("Total dead by age"),
+        EVICTIONS_THIS_ROUND ("Evictions"),
+        EVICTIONS_TOTAL ("Total evictions");
         
         public final String name;
         StatisticsElement (String name) {
@@ -76,6 +82,12 @@ public class Statistics {
             case DEAD_AGE_TOTAL:
                 return deadByAge;
                 
+            case EVICTIONS_THIS_ROUND:
+                return evictionsThisRound;
+                
+            case EVICTIONS_TOTAL:
+                return evictions;
+                
             default:
                 return 0;
         }
@@ -88,6 +100,7 @@ public class Statistics {
         bornThisRound = 0;
         deadByAgeThisRound = 0;
         deadByTicksThisRound = 0;
+        evictionsThisRound = 0;
     }
     
     /**
@@ -118,6 +131,14 @@ public class Statistics {
         return deadByTicks;
     }
     
+    /**
+     * The number of finches forgotten by finches with a limited
+     * memory to make room for other finches.
+     */
+    public int getEvictions () {
+        return evictions;
+    }
+    
     /**
      * The number of finches born in this round.
      */
@@ -139,6 +160,14 @@ public class Statistics {
         return deadByTicksThisRound;
     }
     
+    /**
+     * The number of finches forgotten to make room for other finches
+     * in this round.
+     */
+    public int getEvictionsThisRound () {
+        return evictionsThisRound;
+    }
+    
     /**
      * Increase the population by 1.
      */
@@ -179,4 +208,42 @@ public class Statistics {
         deadByTicks++;
         deadByTicksThisRound++;
     }
-}
\ No newline at end of file
+    
+    /**
+     * Increase the number of evictions in total and the number of
+     * evictions this round by the provided amount.
+     */
+    public void addEvictions (int count) {
+        evictions += count;
+        evictionsThisRound += count;
+    }
+    
+    /**
+     * Add the counts of another Statistics object to this one. Used
+     * to merge statistics gathered separately, for instance by the
+     * tasks of a parallel round.
+     */
+    void add (Statistics other) {
+        population += other.population;
+        born += other.born;
+        deadByAge += other.deadByAge;
+        deadByTicks += other.deadByTicks;
+        evictions += other.evictions;
+        bornThisRound += other.bornThisRound;
+        deadByAgeThisRound += other.deadByAgeThisRound;
+        deadByTicksThisRound += other.deadByTicksThisRound;
+        evictionsThisRound += other.evictionsThisRound;
+    }
+    
+    /**
+     * Set all counts to zero.
+     */
+    void clear () {
+        population = 0;
+        born = 0;
+        deadByAge = 0;
+        deadByTicks = 0;
+        evictions = 0;
+        newRound();
+    }
+}
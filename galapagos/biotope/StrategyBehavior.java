@@ -0,0 +1,38 @@
+package galapagos.biotope;
+
+/**
+ * A behavior whose decisions depend on nothing but chance, and which
+ * doesn't use the responses of other finches. The Biotope decides for
+ * the finches of such behaviors by a switch on their strategy,
+ * without calling decide or response, so that the calls of the
+ * remaining behaviors are shared by fewer classes and are easier for
+ * the virtual machine to inline.
+ */
+public interface StrategyBehavior extends StatelessBehavior {
+    /**
+     * The ways a StrategyBehavior can decide.
+     */
+    public enum Strategy {
+        /**
+         * Always cleans.
+         */
+        ALWAYS_CLEANING,
+
+        /**
+         * Always ignores.
+         */
+        ALWAYS_IGNORING,
+
+        /**
+         * Cleans or ignores with equal chance, cleaning when a random
+         * {@code nextInt(2)} is 0.
+         */
+        RANDOM
+    }
+
+    /**
+     * Return the strategy of this behavior. The decide method must
+     * decide according to it, and response must do nothing.
+     */
+    public Strategy strategy();
+}
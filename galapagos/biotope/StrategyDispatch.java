@@ -0,0 +1,73 @@
+package galapagos.biotope;
+
+import java.util.SplittableRandom;
+
+/**
+ * The way the Biotope lets a finch decide what to do to the finch it
+ * meets. The strategy of every behavior type is looked up once, as
+ * one of the DECIDES_ constants; the finches of StrategyBehaviors are
+ * then decided for by a switch on it, and only the remaining finches
+ * are asked by their behavior.
+ */
+public final class StrategyDispatch {
+    /**
+     * The strategies a behavior type can be decided by: by asking its
+     * behavior, by always cleaning, by always ignoring, or randomly.
+     */
+    public static final byte DECIDES_ITSELF = 0, DECIDES_CLEANING = 1,
+        DECIDES_IGNORING = 2, DECIDES_RANDOMLY = 3;
+
+    private StrategyDispatch() {
+    }
+
+    /**
+     * Return the DECIDES_ constant for the behavior type.
+     */
+    public static byte strategy(Behavior behaviorType) {
+        if (!(behaviorType instanceof StrategyBehavior))
+            return DECIDES_ITSELF;
+        switch (((StrategyBehavior) behaviorType).strategy()) {
+        case ALWAYS_CLEANING:
+            return DECIDES_CLEANING;
+        case ALWAYS_IGNORING:
+            return DECIDES_IGNORING;
+        default:
+            return DECIDES_RANDOMLY;
+        }
+    }
+
+    /**
+     * Decide for a finch by its strategy, asking its behavior only if
+     * the strategy is DECIDES_ITSELF.
+     *
+     * @param strategy The DECIDES_ constant of the behavior type.
+     * @param behavior The behavior of the finch.
+     * @param finch The finch it meets.
+     * @param random The random generator to use.
+     * @return The ordinal of the action.
+     */
+    public static int decide(byte strategy, Behavior behavior, Finch finch,
+                             SplittableRandom random) {
+        switch (strategy) {
+        case DECIDES_CLEANING:
+            return Action.CLEANING.ordinal();
+        case DECIDES_IGNORING:
+            return Action.IGNORING.ordinal();
+        case DECIDES_RANDOMLY:
+            // Like RandomFinch: 0 is CLEANING, 1 is IGNORING.
+            return random.nextInt(2);
+        default:
+            return decide(behavior, finch, random).ordinal();
+        }
+    }
+
+    /**
+     * Let the behavior decide what to do to the finch, providing it
+     * with the random generator if it is a RandomBehavior.
+     */
+    public static Action decide(Behavior behavior, Finch finch, SplittableRandom random) {
+        if (behavior instanceof RandomBehavior)
+            return ((RandomBehavior) behavior).decide(finch, random);
+        return behavior.decide(finch);
+    }
+}
@@ -0,0 +1,291 @@
+package galapagos.biotope;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * A RoundEngine that splits the world into rectangular tiles and
+ * runs the steps of a round on the tiles in parallel, using a
+ * ForkJoinPool.
+ *
+ * Every step reaches the neighbours of a place (reaping a finch
+ * makes its neighbours forget it), so tiles next to each other (also
+ * across the edges of the torus) must not be worked on at the same
+ * time. The tiles are therefore coloured like a checkerboard, and the
+ * tiles of one colour are run in parallel, one colour after the
+ * other. As a tile is at least two places wide and high, the
+ * neighbourhoods of two tiles of the same colour never overlap.
+ *
+ * Within a tile the places are visited in random order. When
+ * breeding and meeting, the shuffled places of every tile are split
+ * into CHUNKS chunks, and all tiles run their first chunk, colour by
+ * colour, before any runs its second, so at any time the places
+ * visited are spread over the whole world, as in the random order of
+ * the SerialRoundEngine. The tiling is also shifted by a random offset
+ * every round, so that no place is always visited before its
+ * neighbours across a tile border. Visiting the tiles one after the
+ * other instead pairs more finches for meetings, and lets the borders
+ * hold back the spread of behaviors from round to round, which
+ * changes the populations the simulation ends up with.
+ *
+ * A round can't give the same world as a serial one, as the places
+ * are visited in another order, drawing other random numbers. The
+ * populations of the behaviors are equivalent to those of a serial
+ * run, that is they are the same on average over seeds.
+ *
+ * The meetings can instead be left to a MeetingScheduler, such as a
+ * MatchingMeetingScheduler, which does not need the tiles to be
+ * coloured.
+ *
+ * Each round, every tile gets its own random generator, split from
+ * the generator of the Biotope in a fixed order. As tiles run in
+ * parallel never touch the same places, a round gives the same
+ * result no matter how many threads the pool has.
+ */
+public class TiledRoundEngine implements RoundEngine {
+    private static final int BREED = 0, MEET = 1, HOLD = 2, REAP = 3;
+
+    /**
+     * The number of chunks the places of a tile are split into when
+     * breeding and meeting.
+     */
+    private static final int CHUNKS = 8;
+
+    private final ForkJoinPool pool;
+    private final int tileSize;
+    private final MeetingScheduler scheduler;
+
+    private World<?> tiledWorld;
+    private Tile[][] phases;
+    private Tile[] tiles;
+
+    /**
+     * Create a TiledRoundEngine using the common ForkJoinPool and
+     * tiles of at least 16 * 16 places.
+     */
+    public TiledRoundEngine() {
+        this(ForkJoinPool.commonPool(), 16);
+    }
+
+    /**
+     * Create a TiledRoundEngine.
+     *
+     * @param pool The pool running the tiles.
+     * @param tileSize The minimum width and height of a tile. Tiles
+     * are made as small as possible while dividing the world evenly,
+     * but never smaller than this, unless the world itself is.
+     *
+     * @require tileSize >= 2
+     */
+    public TiledRoundEngine(ForkJoinPool pool, int tileSize) {
+        this(pool, tileSize, null);
+    }
+
+    /**
+     * Create a TiledRoundEngine leaving the meetings to a
+     * MeetingScheduler.
+     *
+     * @param pool The pool running the tiles.
+     * @param tileSize The minimum width and height of a tile.
+     * @param scheduler The scheduler of the meetings, or null to let
+     * the finches of each tile meet greedily, like the
+     * GreedyMeetingScheduler, one colour of tiles after the other.
+     *
+     * @require tileSize >= 2
+     */
+    public TiledRoundEngine(ForkJoinPool pool, int tileSize, MeetingScheduler scheduler) {
+        assert (tileSize >= 2) : "Tiles must be at least two places wide.";
+        this.pool = pool;
+        this.tileSize = tileSize;
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * @inheritDoc
+     */
+    public void runRound(Biotope biotope) {
+        PackedWorld world = biotope.world();
+        Statistics[] stats = biotope.statisticsById();
+        if (world != tiledWorld)
+            makeTiles(world);
+        SplittableRandom random = biotope.random();
+        int offsetX = random.nextInt(world.width());
+        int offsetY = random.nextInt(world.height());
+        for (Tile tile : tiles)
+            tile.prepare(biotope, stats.length, random.split(), offsetX, offsetY);
+
+        for (int chunk = 0; chunk < CHUNKS; chunk++)
+            for (Tile[] phase : phases)
+                run(phase, BREED, chunk);
+        merge(stats);
+
+        if (scheduler != null)
+            scheduler.makeMeetings(biotope);
+        else {
+            biotope.clearEngagementKnowledge();
+            for (int chunk = 0; chunk < CHUNKS; chunk++)
+                for (Tile[] phase : phases)
+                    run(phase, MEET, chunk);
+            for (Tile[] phase : phases)
+                run(phase, HOLD, 0);
+            for (Tile tile : tiles)
+                biotope.countMeetings(tile.context);
+        }
+
+        for (Tile[] phase : phases)
+            run(phase, REAP, 0);
+        merge(stats);
+    }
+
+    /**
+     * Run a step, or a chunk of it, on the provided tiles in
+     * parallel, and wait for all of them to finish.
+     */
+    private void run(final Tile[] runTiles, final int step, final int chunk) {
+        if (runTiles.length == 1) {
+            runTiles[0].run(step, chunk);
+            return;
+        }
+        pool.invoke(new RecursiveAction() {
+                protected void compute() {
+                    List<RecursiveAction> tasks = new ArrayList<RecursiveAction>(runTiles.length);
+                    for (final Tile tile : runTiles)
+                        tasks.add(new RecursiveAction() {
+                                protected void compute() {
+                                    tile.run(step, chunk);
+                                }
+                            });
+                    invokeAll(tasks);
+                }
+            });
+    }
+
+    /**
+     * Add the statistics gathered by the tiles to the statistics of
+     * the Biotope, and clear the statistics of the tiles.
+     */
+    private void merge(Statistics[] stats) {
+        for (Tile tile : tiles)
+            for (int id = 0; id < stats.length; id++) {
+                stats[id].add(tile.context.stats[id]);
+                tile.context.stats[id].clear();
+            }
+    }
+
+    /**
+     * Split the world into tiles and sort the tiles into phases by
+     * colour.
+     */
+    private void makeTiles(World<?> world) {
+        int tilesX = Math.max(1, world.width() / tileSize);
+        int tilesY = Math.max(1, world.height() / tileSize);
+
+        List<List<Tile>> colours = new ArrayList<List<Tile>>(9);
+        for (int i = 0; i < 9; i++)
+            colours.add(new ArrayList<Tile>());
+        tiles = new Tile[tilesX * tilesY];
+        for (int tx = 0; tx < tilesX; tx++)
+            for (int ty = 0; ty < tilesY; ty++) {
+                Tile tile = new Tile(world,
+                                     tx * world.width() / tilesX,
+                                     (tx + 1) * world.width() / tilesX,
+                                     ty * world.height() / tilesY,
+                                     (ty + 1) * world.height() / tilesY);
+                tiles[tx * tilesY + ty] = tile;
+                colours.get(colour(tx, tilesX) * 3 + colour(ty, tilesY)).add(tile);
+            }
+
+        List<Tile[]> phaseList = new ArrayList<Tile[]>();
+        for (List<Tile> colour : colours)
+            if (!colour.isEmpty())
+                phaseList.add(colour.toArray(new Tile[colour.size()]));
+        phases = phaseList.toArray(new Tile[phaseList.size()][]);
+        tiledWorld = world;
+    }
+
+    /**
+     * Return the colour of tile number t out of count tiles along one
+     * axis. Neighbouring tiles always get different colours, also when
+     * wrapping around the edge of the torus, which takes a third
+     * colour when the number of tiles is odd.
+     */
+    private static int colour(int t, int count) {
+        if (count > 1 && count % 2 == 1 && t == count - 1)
+            return 2;
+        return t % 2;
+    }
+
+    /**
+     * A rectangle of places in the world, with its own RoundContext
+     * so that it can be run without synchronizing with other tiles.
+     */
+    private static class Tile {
+        private final World<?> world;
+        private final int x0, x1, y0, y1;
+
+        /**
+         * The indices of the places of the tile this round.
+         */
+        private final int[] indices;
+        private Biotope biotope;
+        private RoundContext context;
+
+        private Tile(World<?> world, int x0, int x1, int y0, int y1) {
+            this.world = world;
+            this.x0 = x0;
+            this.x1 = x1;
+            this.y0 = y0;
+            this.y1 = y1;
+            indices = new int[(x1 - x0) * (y1 - y0)];
+        }
+
+        /**
+         * Make the tile ready for running a round of the provided
+         * Biotope, using the provided random generator, with the
+         * tiling shifted by the provided offset.
+         */
+        private void prepare(Biotope biotope, int behaviorCount, SplittableRandom random,
+                             int offsetX, int offsetY) {
+            this.biotope = biotope;
+            int i = 0;
+            for (int x = x0; x < x1; x++)
+                for (int y = y0; y < y1; y++)
+                    indices[i++] = world.index((x + offsetX) % world.width(),
+                                               (y + offsetY) % world.height());
+            if (context == null || context.stats.length != behaviorCount) {
+                Statistics[] stats = new Statistics[behaviorCount];
+                for (int id = 0; id < behaviorCount; id++)
+                    stats[id] = new Statistics();
+                context = new RoundContext(stats, random);
+            }
+            context.random = random;
+        }
+
+        /**
+         * Run a step of the round on the places of this tile, or on
+         * a chunk of them when breeding and meeting. The places are
+         * shuffled before the first chunk.
+         */
+        private void run(int step, int chunk) {
+            if (step == REAP) {
+                for (int index : indices)
+                    biotope.reap(index, context);
+                return;
+            }
+            if (step == HOLD) {
+                biotope.holdMeetings(context);
+                return;
+            }
+            if (chunk == 0)
+                World.shuffle(indices, context.random);
+            int from = (int) ((long) chunk * indices.length / CHUNKS);
+            int to = (int) ((long) (chunk + 1) * indices.length / CHUNKS);
+            if (step == BREED)
+                for (int i = from; i < to; i++)
+                    biotope.breed(indices[i], context);
+            else
+                for (int i = from; i < to; i++)
+                    biotope.meet(indices[i], context);
+        }
+    }
+}
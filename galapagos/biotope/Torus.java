@@ -0,0 +1,169 @@
+package galapagos.biotope;
+
+/**
+ * The coordinate system of a torus-shaped world of width * height
+ * places, identified by the index {@code x * height + y}. A Torus
+ * wraps coordinates without recursion. As x and y wrap independently,
+ * it keeps tables of the neighbouring columns of every column and the
+ * neighbouring rows of every row, width + height entries in all, from
+ * which the neighbours of a place are found with a single division.
+ */
+public final class Torus {
+    /**
+     * The number of neighbours of a place.
+     */
+    public static final int NEIGHBOURS = 8;
+
+    private final int width;
+    private final int height;
+
+    /**
+     * The index of the first place of the column to the left of and
+     * to the right of each column.
+     */
+    private final int[] leftColumn, rightColumn;
+
+    /**
+     * The row above and the row below each row.
+     */
+    private final int[] upRow, downRow;
+
+    /**
+     * Create the coordinate system of a world of size width * height.
+     *
+     * @require 0 < width && 0 < height
+     */
+    public Torus(int width, int height) {
+        assert (0 < width && 0 < height) : "A torus must have places.";
+        this.width = width;
+        this.height = height;
+        leftColumn = new int[width];
+        rightColumn = new int[width];
+        for (int x = 0; x < width; x++) {
+            leftColumn[x] = (x == 0 ? width - 1 : x - 1) * height;
+            rightColumn[x] = (x == width - 1 ? 0 : x + 1) * height;
+        }
+        upRow = new int[height];
+        downRow = new int[height];
+        for (int y = 0; y < height; y++) {
+            upRow[y] = y == 0 ? height - 1 : y - 1;
+            downRow[y] = y == height - 1 ? 0 : y + 1;
+        }
+    }
+
+    /**
+     * Wrap the provided value to the range [0; max[. Values in the
+     * range [-max; 2 * max[, which is where the neighbours of a place
+     * are, are wrapped with a conditional add and subtract and no
+     * branches; only values further away need a division.
+     *
+     * @require 0 < max
+     */
+    public static int wrap(int max, int value) {
+        if (value < -max || value >= 2 * max)
+            value %= max;
+        value += max & (value >> 31);
+        return value - (max & ((max - 1 - value) >> 31));
+    }
+
+    /**
+     * Return the width of the torus in places.
+     */
+    public int width() {
+        return width;
+    }
+
+    /**
+     * Return the height of the torus in places.
+     */
+    public int height() {
+        return height;
+    }
+
+    /**
+     * Return x wrapped to the width of the torus.
+     *
+     * @return An integer in the range [0; width[.
+     */
+    public int wrapX(int x) {
+        return wrap(width, x);
+    }
+
+    /**
+     * Return y wrapped to the height of the torus.
+     *
+     * @return An integer in the range [0; height[.
+     */
+    public int wrapY(int y) {
+        return wrap(height, y);
+    }
+
+    /**
+     * Return the index of the place at x,y, wrapping both coordinates.
+     */
+    public int wrappedIndex(int x, int y) {
+        return wrapX(x) * height + wrapY(y);
+    }
+
+    /**
+     * Return the index of the place to the left of the place with the
+     * given index.
+     */
+    public int left(int index) {
+        int x = index / height;
+        return leftColumn[x] + index - x * height;
+    }
+
+    /**
+     * Return the index of the place to the right of the place with
+     * the given index.
+     */
+    public int right(int index) {
+        int x = index / height;
+        return rightColumn[x] + index - x * height;
+    }
+
+    /**
+     * Return the index of the place above the place with the given
+     * index.
+     */
+    public int up(int index) {
+        int column = index / height * height;
+        return column + upRow[index - column];
+    }
+
+    /**
+     * Return the index of the place below the place with the given
+     * index.
+     */
+    public int down(int index) {
+        int column = index / height * height;
+        return column + downRow[index - column];
+    }
+
+    /**
+     * Store the indices of the NEIGHBOURS neighbours of the place
+     * with the given index in the first places of the buffer: the
+     * column to the left from the top, the places above and below,
+     * and the column to the right from the top. In a torus less than
+     * three places wide or high, the place itself may be among its
+     * neighbours, and a neighbour may occur twice.
+     *
+     * @require buffer.length >= NEIGHBOURS
+     */
+    public void neighbours(int index, int[] buffer) {
+        int x = index / height;
+        int column = x * height;
+        int y = index - column;
+        int left = leftColumn[x], right = rightColumn[x];
+        int up = upRow[y], down = downRow[y];
+        buffer[0] = left + up;
+        buffer[1] = left + y;
+        buffer[2] = left + down;
+        buffer[3] = column + up;
+        buffer[4] = column + down;
+        buffer[5] = right + up;
+        buffer[6] = right + y;
+        buffer[7] = right + down;
+    }
+}
@@ -6,25 +6,48 @@ import java.util.*;
  * A torus world, a two-dimensional array containing "places" that can
  * contain objects and which are aware of their position and
  * surroundings. Also provides an iterator-based facility for going
- * through the places of the world randomly.
+ * through the places of the world randomly, using the random
+ * generator of the world.
+ *
+ * Places are identified by an index, {@code x * height + y}. The
+ * Place objects handed out by the world are views of the place at a
+ * given index; the elements themselves are kept by the world, and
+ * subclasses may keep them in any form they like by overriding
+ * elementAt(), setElementAt() and isOccupied().
  */
 public class World<T> implements Iterable<World<T>.Place> {
-    private ArrayList<Place> array;
-    private ArrayList<Place> shuffledArray;
+    private Object[] elements;
+    private int[] shuffledIndices;
     private final int width;
     private final int height;
+    private final SplittableRandom random;
+    private final Torus torus;
 
     /**
-     * Create a world of size worldWidth * worldHeight.
+     * The number of neighbours of a place.
+     */
+    public static final int NEIGHBOURS = Torus.NEIGHBOURS;
+
+    /**
+     * Create a world of size worldWidth * worldHeight with an
+     * unseeded random generator.
      */
     public World(int worldWidth, int worldHeight) {
+        this(worldWidth, worldHeight, new SplittableRandom());
+    }
+
+    /**
+     * Create a world of size worldWidth * worldHeight.
+     *
+     * @param random The random generator used when the world is
+     * traversed in random order. It must only be used from one thread
+     * at a time.
+     */
+    public World(int worldWidth, int worldHeight, SplittableRandom random) {
         width = worldWidth;
         height = worldHeight;
-        array = new ArrayList<Place>(width * height);
-        for (int x = 0; x < width; x++)
-            for (int y = 0; y < height; y++)
-                array.add(new Place(x, y));
-        shuffledArray = (ArrayList) array.clone();
+        this.random = random;
+        torus = new Torus(worldWidth, worldHeight);
     }
 
     /**
@@ -47,12 +70,27 @@ public class World<T> implements Iterable<World<T>.Place> {
         return height;
     }
 
+    /**
+     * Return the number of places in the world.
+     */
+    public int size() {
+        return width * height;
+    }
+
+    /**
+     * Return the coordinate system of this World.
+     */
+    public Torus torus() {
+        return torus;
+    }
+
     /**
      * Wrap the provided value to the maximum.
+     *
+     * @see Torus#wrap(int, int)
      */
     public static int wrap(int max, int value) {
-        if (value < 0) return wrap(max, max + value);
-        else return value % max;
+        return Torus.wrap(max, value);
     }
 
     /**
@@ -63,11 +101,11 @@ public class World<T> implements Iterable<World<T>.Place> {
      * @return An integer in the range [0; width of world[.
      */
     public int wrappedX(int x) {
-        return wrap(width(), x);
+        return torus.wrapX(x);
     }
 
-  
-        
+
+
     /**
      * Return y wrapped to the width of this World. An y value above
      * or below the actual edges of the World will be wrapped to the
@@ -76,17 +114,70 @@ public class World<T> implements Iterable<World<T>.Place> {
      * @return An integer in the range [0; height of world[.
      */
     public int wrappedY(int y) {
-        return wrap(height(), y);
+        return torus.wrapY(y);
+    }
+
+    /**
+     * Return the index of the place at offset x,y.
+     *
+     * @require 0 <= x < width() && 0 <= y < height()
+     */
+    public int index(int x, int y) {
+        return x * height + y;
+    }
+
+    /**
+     * Return the x position of the place with the given index.
+     */
+    public int xOf(int index) {
+        return index / height;
+    }
+
+    /**
+     * Return the y position of the place with the given index.
+     */
+    public int yOf(int index) {
+        return index % height;
+    }
+
+    /**
+     * Get the element of the place with the given index.
+     *
+     * @return The element at the place, may be null, meaning that
+     * the place is empty.
+     */
+    @SuppressWarnings("unchecked")
+    protected T elementAt(int index) {
+        if (elements == null)
+            return null;
+        return (T) elements[index];
+    }
+
+    /**
+     * Redefine the element of the place with the given index.
+     */
+    protected void setElementAt(int index, T element) {
+        if (elements == null)
+            elements = new Object[size()];
+        elements[index] = element;
+    }
+
+    /**
+     * Return true if the place with the given index holds an
+     * element.
+     */
+    public boolean isOccupied(int index) {
+        return elementAt(index) != null;
     }
 
     /**
      * A position in the world, contains a single element. Objects of
-     * this class are immutable, but may change when the setAt()
-     * method of World is invoked.
+     * this class are views of a place in the world; they are
+     * immutable, but the element they show will change when the
+     * setAt() method of World is invoked.
      */
     public class Place {
-        private T element;
-        private int xPosition, yPosition;
+        private final int xPosition, yPosition;
 
         private Place(int x, int y) {
             xPosition = x;
@@ -100,14 +191,14 @@ public class World<T> implements Iterable<World<T>.Place> {
          * the place is empty.
          */
         public T getElement() {
-            return element;
+            return elementAt(index());
         }
 
         /**
          * Redefine this place's element.
          */
         public void setElement (T element) {
-            this.element = element;
+            setElementAt(index(), element);
         }
 
         /**
@@ -130,41 +221,141 @@ public class World<T> implements Iterable<World<T>.Place> {
             return yPosition;
         }
 
+        /**
+         * Get the index of this place in its world.
+         */
+        public int index() {
+            return World.this.index(xPosition, yPosition);
+        }
+
         /**
          * Get the filled neighbors of this place as a randomly
-         * arranged list.
+         * arranged list, using the random generator of the world.
          *
          * @return A list of non-empty neighbor places.
          */
         public List<Place> filledNeighbours() {
-            List<Place> list = new ArrayList<Place>(8);
-            for (int x = xPosition - 1; x <= xPosition + 1; x++)
-                for (int y = yPosition - 1; y <= yPosition + 1; y++) {
-                    Place p = getAt(wrappedX(x), wrappedY(y));
-                    if (p != this && p.element != null)
-                        list.add(getAt(wrappedX(x), wrappedY(y)));
-                }
-            Collections.shuffle(list);
-            return list;
+            int[] buffer = new int[NEIGHBOURS];
+            return places(buffer, World.this.filledNeighbours(index(), buffer, random));
         }
-        
+
         /**
          * Get the empty neighbors of this place as a randomly
-         * arranged list.
+         * arranged list, using the random generator of the world.
          *
          * @return A list of empty neighbor places.
          */
         public List<Place> emptyNeighbours() {
-            List<Place> list = new ArrayList<Place>(8);
-            for (int x = xPosition - 1; x <= xPosition + 1; x++)
-                for (int y = yPosition - 1; y <= yPosition + 1; y++) {
-                    Place p = getAt(wrappedX(x), wrappedY(y));
-                    if (p != this && p.element == null)
-                        list.add(getAt(wrappedX(x), wrappedY(y)));
-                }
-            Collections.shuffle(list);
+            int[] buffer = new int[NEIGHBOURS];
+            return places(buffer, World.this.emptyNeighbours(index(), buffer, random));
+        }
+
+        /**
+         * Return the places of the first count indices in the buffer
+         * as a list.
+         */
+        private List<Place> places(int[] buffer, int count) {
+            List<Place> list = new ArrayList<Place>(count);
+            for (int i = 0; i < count; i++)
+                list.add(placeAt(buffer[i]));
             return list;
         }
+
+        /**
+         * Two places are equal if they are views of the same
+         * position in the same world.
+         */
+        public boolean equals(Object obj) {
+            if (!(obj instanceof World<?>.Place))
+                return false;
+            World<?>.Place other = (World<?>.Place) obj;
+            return other.world() == World.this
+                && other.xPosition == xPosition
+                && other.yPosition == yPosition;
+        }
+
+        /**
+         * @inheritDoc
+         */
+        public int hashCode() {
+            return index();
+        }
+
+        private World<T> world() {
+            return World.this;
+        }
+    }
+
+    /**
+     * Store the indices of all neighbours of the place with the given
+     * index in the first NEIGHBOURS places of the buffer, without
+     * looking at whether they are occupied. In a world less than
+     * three places wide or high, the place itself may be among its
+     * neighbours, and a neighbour may occur twice.
+     *
+     * @param index The index of the place.
+     * @param buffer The buffer to store the indices in.
+     *
+     * @require buffer.length >= NEIGHBOURS
+     */
+    public void neighbours(int index, int[] buffer) {
+        torus.neighbours(index, buffer);
+    }
+
+    /**
+     * Store the indices of the filled neighbours of the place with
+     * the given index in the first places of the buffer, in an order
+     * chosen by the provided random generator. Allocates nothing.
+     *
+     * @param index The index of the place.
+     * @param buffer The buffer to store the indices in.
+     * @param random The random generator to use.
+     * @return The number of filled neighbours.
+     *
+     * @require buffer.length >= NEIGHBOURS
+     */
+    public int filledNeighbours(int index, int[] buffer, SplittableRandom random) {
+        return neighbours(index, buffer, random, true);
+    }
+
+    /**
+     * Store the indices of the empty neighbours of the place with the
+     * given index in the first places of the buffer, in an order
+     * chosen by the provided random generator. Allocates nothing.
+     *
+     * @param index The index of the place.
+     * @param buffer The buffer to store the indices in.
+     * @param random The random generator to use.
+     * @return The number of empty neighbours.
+     *
+     * @require buffer.length >= NEIGHBOURS
+     */
+    public int emptyNeighbours(int index, int[] buffer, SplittableRandom random) {
+        return neighbours(index, buffer, random, false);
+    }
+
+    /**
+     * Store the indices of the neighbours of the place with the given
+     * index whose occupation matches the occupied argument in the
+     * buffer, shuffling them while they are stored. The buffer first
+     * holds all neighbours, and the matching ones are shuffled into
+     * its beginning, which never passes the neighbour being read.
+     */
+    private int neighbours(int index, int[] buffer, SplittableRandom random,
+                           boolean occupied) {
+        torus.neighbours(index, buffer);
+        int count = 0;
+        for (int i = 0; i < NEIGHBOURS; i++) {
+            int neighbour = buffer[i];
+            if (neighbour != index && isOccupied(neighbour) == occupied) {
+                // Inside-out Fisher-Yates shuffle.
+                int j = random.nextInt(count + 1);
+                buffer[count] = buffer[j];
+                buffer[j] = neighbour;
+                count++;
+            }
+        }
+        return count;
     }
 
     /**
@@ -173,14 +364,21 @@ public class World<T> implements Iterable<World<T>.Place> {
     public Place getAt(int x, int y) {
         assert(x < width);
         assert(y < height);
-        return array.get(x * height + y);
+        return new Place(x, y);
+    }
+
+    /**
+     * Return the place with the given index.
+     */
+    public Place placeAt(int index) {
+        return new Place(xOf(index), yOf(index));
     }
 
     /**
      * Set the element of the place at offset x,y.
      */
     public void setAt(int x, int y, T value) {
-        getAt(x, y).element = value;
+        setElementAt(index(x, y), value);
     }
 
     /**
@@ -188,7 +386,23 @@ public class World<T> implements Iterable<World<T>.Place> {
      * world from the top left to the bottom right (row by row).
      */
     public Iterator<Place> iterator() {
-        return array.iterator();
+        return new Iterator<Place>() {
+            private int next = 0;
+
+            public boolean hasNext() {
+                return next < size();
+            }
+
+            public Place next() {
+                if (!hasNext())
+                    throw new NoSuchElementException();
+                return placeAt(next++);
+            }
+
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
     }
 
     /**
@@ -198,7 +412,58 @@ public class World<T> implements Iterable<World<T>.Place> {
      * over.
      */
     public Iterator<Place> randomIterator() {
-        Collections.shuffle(shuffledArray);
-        return shuffledArray.iterator();
+        final int[] indices = randomOrder();
+        return new Iterator<Place>() {
+            private int next = 0;
+
+            public boolean hasNext() {
+                return next < indices.length;
+            }
+
+            public Place next() {
+                if (!hasNext())
+                    throw new NoSuchElementException();
+                return placeAt(indices[next++]);
+            }
+
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+
+    /**
+     * Return the indices of all places of the world in random
+     * order. The returned array is owned by the world and is
+     * reshuffled by the next call to randomOrder() or
+     * randomIterator(), so it must not be modified or kept.
+     */
+    public int[] randomOrder() {
+        if (shuffledIndices == null) {
+            shuffledIndices = new int[size()];
+            for (int i = 0; i < shuffledIndices.length; i++)
+                shuffledIndices[i] = i;
+        }
+        shuffle(shuffledIndices, random);
+        return shuffledIndices;
+    }
+
+    /**
+     * Return the random generator of this world.
+     */
+    public SplittableRandom random() {
+        return random;
+    }
+
+    /**
+     * Randomly permute the provided array.
+     */
+    public static void shuffle(int[] array, SplittableRandom random) {
+        for (int i = array.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int tmp = array[i];
+            array[i] = array[j];
+            array[j] = tmp;
+        }
     }
 }
@@ -0,0 +1,53 @@
+package galapagos.tests;
+
+import galapagos.behaviors.*;
+import galapagos.biotope.*;
+import junit.framework.*;
+import java.util.*;
+
+/**
+ * Test that ActionMap stores its actions as bits without mixing up
+ * the actions of different ids, also when entries are moved by
+ * removals and by growing.
+ */
+public class ActionMapTest extends TestCase {
+
+    /**
+     * Test storing and replacing both actions.
+     */
+    public void testPutGet() {
+        ActionMap map = new ActionMap();
+        assertNull(map.get(1));
+        map.put(1, Action.IGNORING);
+        map.put(2, Action.CLEANING);
+        assertEquals(Action.IGNORING, map.get(1));
+        assertEquals(Action.CLEANING, map.get(2));
+        map.put(1, Action.CLEANING);
+        assertEquals(Action.CLEANING, map.get(1));
+        assertEquals(Action.CLEANING, map.remove(1));
+        assertNull(map.get(1));
+    }
+
+    /**
+     * Test a long random sequence of operations against a HashMap,
+     * with enough ids for the map to grow beyond 64 slots.
+     */
+    public void testAgainstHashMap() {
+        ActionMap map = new ActionMap();
+        Map<Integer, Action> expected = new HashMap<Integer, Action>();
+        SplittableRandom random = new SplittableRandom(5);
+        for (int i = 0; i < 20000; i++) {
+            int id = random.nextInt(300) - 50;
+            if (random.nextInt(4) == 0) {
+                assertEquals(expected.remove(id), map.remove(id));
+            } else {
+                Action action = random.nextBoolean() ? Action.CLEANING : Action.IGNORING;
+                expected.put(id, action);
+                map.put(id, action);
+            }
+            assertEquals(expected.size(), map.size());
+        }
+        for (int id = -50; id < 250; id++)
+            assertEquals(expected.get(id), map.get(id));
+    }
+}
@@ -49,6 +49,43 @@ public class AnalyzerTest extends BehaviorTest {
         }
     }
 
+    /**
+     * Test that an Analyzer keeping the history of its interactions
+     * decides like one that only counts them, and that clones keep
+     * the history if the original does.
+     */
+    public void testHistory() {
+        Analyzer counting = new Analyzer();
+        Analyzer keeping = new Analyzer(true);
+        assertFalse(counting.keepsHistory());
+        assertTrue(keeping.keepsHistory());
+        assertTrue(((Analyzer) keeping.clone()).keepsHistory());
+
+        java.util.SplittableRandom random = new java.util.SplittableRandom(5);
+        for (int i = 0; i < 200; i++) {
+            Finch finch = random.nextBoolean() ? opponent : opponent2;
+            assertEquals(keeping.decide(finch), counting.decide(finch));
+            Action reaction = random.nextBoolean() ? Action.CLEANING : Action.IGNORING;
+            keeping.response(finch, reaction);
+            counting.response(finch, reaction);
+        }
+    }
+
+    /**
+     * Test that an Analyzer sharing a Predictor falls back on what
+     * the Predictor has learned.
+     */
+    public void testSharing() {
+        Predictor predictor = new Predictor();
+        assertTrue(((Analyzer) behavior).canShareWith(predictor));
+        predictor.response(opponent, Action.IGNORING);
+
+        Behavior sharing = ((Analyzer) behavior).cloneSharing(predictor);
+        assertEquals(behavior, sharing);
+        assertEquals(Action.IGNORING, sharing.decide(opponent));
+        assertEquals(Action.CLEANING, behavior.decide(opponent));
+    }
+
     public Behavior getBehavior() {
         return new Analyzer();
     }
@@ -0,0 +1,136 @@
+package galapagos.tests;
+
+import galapagos.BatchRunner;
+import galapagos.behaviors.*;
+import galapagos.biotope.*;
+import junit.framework.*;
+import java.io.*;
+import java.util.*;
+
+/**
+ * Tests that the BatchRunner builds the configured Biotope, and that
+ * it writes the statistics of every round.
+ */
+public class BatchRunnerTest extends TestCase {
+
+    /**
+     * Test that the configuration is read from the arguments.
+     */
+    public void testConfiguration() throws IOException {
+        Properties properties = BatchRunner.parseArguments(new String[] {
+                "width=30", "height=20", "finchesPerBehavior=5",
+                "behaviors=Samaritan, Cheater,Grudger", "seed=17" });
+        Biotope biotope = new BatchRunner(properties).createBiotope();
+        assertEquals(30, biotope.width());
+        assertEquals(20, biotope.height());
+        assertEquals(17, biotope.seed());
+        assertEquals(3, biotope.behaviors().size());
+        for (Behavior behavior : biotope.behaviors())
+            assertEquals(5, biotope.statistics(behavior).getPopulation());
+    }
+
+    /**
+     * Test that memory limits are set per behavior type.
+     */
+    public void testMemoryLimit() throws IOException {
+        Properties properties = BatchRunner.parseArguments(new String[] {
+                "behaviors=Cheater,Grudger,Analyzer", "finchesPerBehavior=5",
+                "memory.Grudger=4", "memory.Analyzer=2,lfu" });
+        Biotope biotope = new BatchRunner(properties).createBiotope();
+        MemoryLimit grudger = biotope.memoryLimit(new Grudger());
+        assertEquals(4, grudger.capacity());
+        assertEquals(MemoryLimit.Eviction.LEAST_RECENTLY_USED, grudger.eviction());
+        MemoryLimit analyzer = biotope.memoryLimit(new Analyzer());
+        assertEquals(2, analyzer.capacity());
+        assertEquals(MemoryLimit.Eviction.LEAST_FREQUENTLY_USED, analyzer.eviction());
+        assertNull(biotope.memoryLimit(new Cheater()));
+    }
+
+    /**
+     * Test that the payoffs are set.
+     */
+    public void testPayoffs() throws IOException {
+        Properties properties = BatchRunner.parseArguments(new String[] {
+                "finchesPerBehavior=1", "payoffs=4, -1,6,2" });
+        Biotope biotope = new BatchRunner(properties).createBiotope();
+        assertEquals(4, biotope.payoff(Action.CLEANING, Action.CLEANING));
+        assertEquals(-1, biotope.payoff(Action.CLEANING, Action.IGNORING));
+        assertEquals(6, biotope.payoff(Action.IGNORING, Action.CLEANING));
+        assertEquals(2, biotope.payoff(Action.IGNORING, Action.IGNORING));
+    }
+
+    /**
+     * Test that command line arguments override the properties file.
+     */
+    public void testConfigFile() throws IOException {
+        File config = File.createTempFile("galapagos", ".properties");
+        try {
+            Writer out = new FileWriter(config);
+            out.write("width=40\nheight=40\n");
+            out.close();
+            Properties properties = BatchRunner.parseArguments(new String[] {
+                    "config=" + config.getPath(), "height=10", "finchesPerBehavior=1" });
+            Biotope biotope = new BatchRunner(properties).createBiotope();
+            assertEquals(40, biotope.width());
+            assertEquals(10, biotope.height());
+        } finally {
+            config.delete();
+        }
+    }
+
+    /**
+     * Test that invalid configurations are rejected.
+     */
+    public void testInvalidConfiguration() throws IOException {
+        String[][] invalid = {
+            { "width" },
+            { "width=ten" },
+            { "behaviors=Nobody" },
+            { "width=2", "height=2" },
+            { "initialHitpoints=20" },
+            { "engine=magic" },
+            { "scheduler=magic" },
+            { "payoffs=1,2,3" },
+            { "memory.Cheater=4" },
+            { "memory.Grudger=0" },
+            { "memory.Grudger=4,mru" } };
+        for (String[] args : invalid) {
+            try {
+                new BatchRunner(BatchRunner.parseArguments(args)).createBiotope();
+                fail("Accepted " + Arrays.asList(args));
+            } catch (IllegalArgumentException e) {
+                // Expected.
+            }
+        }
+    }
+
+    /**
+     * Test that a run writes a line per behavior and round to the
+     * statistics file, and reports the speed of the run.
+     */
+    public void testRun() throws IOException {
+        File statistics = File.createTempFile("galapagos", ".csv");
+        try {
+            Properties properties = BatchRunner.parseArguments(new String[] {
+                    "width=20", "height=20", "finchesPerBehavior=10", "rounds=15",
+                    "behaviors=Samaritan,Cheater", "engine=tiled", "tileSize=4",
+                    "statistics=" + statistics.getPath() });
+            ByteArrayOutputStream summary = new ByteArrayOutputStream();
+            new BatchRunner(properties).run(new PrintStream(summary));
+
+            BufferedReader in = new BufferedReader(new FileReader(statistics));
+            List<String> lines = new ArrayList<String>();
+            for (String line = in.readLine(); line != null; line = in.readLine())
+                lines.add(line);
+            in.close();
+            assertEquals(1 + 15 * 2, lines.size());
+            assertTrue(lines.get(0).startsWith("Round,Behavior,Population"));
+            assertTrue(lines.get(lines.size() - 1).startsWith("15,"));
+
+            assertTrue(summary.toString().contains("Rounds/sec: "));
+            assertTrue(summary.toString().contains("Meetings/sec: "));
+        } finally {
+            statistics.delete();
+        }
+    }
+}
@@ -2,6 +2,7 @@ package galapagos.tests;
 
 import galapagos.behaviors.*;
 import galapagos.biotope.*;
+import java.util.SplittableRandom;
 import junit.framework.TestCase;
 
 /**
@@ -48,6 +49,26 @@ public abstract class BehaviorTest extends TestCase {
     	assertEquals(behavior.toString(), behaviorName());
     }
     
+    /**
+     * Test that the Biotope, deciding for a StrategyBehavior by its
+     * strategy, decides as the decide-method would. A RandomBehavior
+     * is given a generator seeded as the one the Biotope draws from.
+     */
+    public final void testStrategyDispatch() {
+        if (!(behavior instanceof StrategyBehavior))
+            return;
+        byte strategy = StrategyDispatch.strategy(behavior);
+        SplittableRandom random = new SplittableRandom(1);
+        SplittableRandom expectedRandom = new SplittableRandom(1);
+        for (int i = 0; i < 100; i++) {
+            Action expected = behavior instanceof RandomBehavior
+                ? ((RandomBehavior) behavior).decide(opponent, expectedRandom)
+                : behavior.decide(opponent);
+            assertEquals(expected.ordinal(),
+                         StrategyDispatch.decide(strategy, behavior, opponent, random));
+        }
+    }
+    
     /**
      * Test that the clone-method creates a new behavior of the same type,
      * and that it doesn't just copies the reference.
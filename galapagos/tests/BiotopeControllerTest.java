@@ -34,10 +34,11 @@ public class BiotopeControllerTest extends TestCase {
     /**
      * Tests that the controller answers the nextRound command.
      */
-    public void testNextRound() {
+    public void testNextRound() throws InterruptedException {
         int oldRound = biotope.round();
         for (int i = 0; i < 10; i++) {
             controller.actionPerformed(new ActionEvent(this, 0, "nextRound"));
+            controller.waitForSimulation();
             assertEquals(oldRound + 1, biotope.round());
             oldRound = biotope.round();
         }
@@ -45,7 +46,7 @@ public class BiotopeControllerTest extends TestCase {
 
     // The putFinches/removeFinches tests kinda cover each other in
     // scope, but that only increases test coverage.
-    public void testPutFinches() {
+    public void testPutFinches() throws InterruptedException {
         // First, remove all finches.
         controller.setManipulationRadius(200);
         controller.takeFinches(0, 0);
@@ -53,6 +54,7 @@ public class BiotopeControllerTest extends TestCase {
         // Then, add some and see if they were actually added.
         controller.setManipulationRadius(10);
         controller.putFinches(0, 0, new Samaritan());
+        controller.waitForSimulation();
 
         Behavior samaritan = null;
 
@@ -66,10 +68,11 @@ public class BiotopeControllerTest extends TestCase {
         assertEquals(305, s.getStatByElement(Statistics.StatisticsElement.POPULATION));
     }
 
-    public void testRemoveFinches() {
+    public void testRemoveFinches() throws InterruptedException {
         // First, fill everything with samaritans.
         controller.setManipulationRadius(50);
         controller.putFinches(0, 0, new Samaritan());
+        controller.waitForSimulation();
 
         Behavior samaritan = null;
 
@@ -85,6 +88,7 @@ public class BiotopeControllerTest extends TestCase {
         // Now remove everything.
         controller.setManipulationRadius(200);
         controller.takeFinches(0, 0);
+        controller.waitForSimulation();
         assertEquals(0, s.getStatByElement(Statistics.StatisticsElement.POPULATION));
     }
     
@@ -105,14 +109,21 @@ public class BiotopeControllerTest extends TestCase {
     
     /**
      * Tests that the controller answers the loop and stopSimulation commands.
-     * The test will make an infinite loop if the stopSimulation-command doesn't work.
+     * The test will make an infinite loop if the loop-command doesn't work.
+     * As the rounds run on a thread of their own, a few more than 40
+     * may have been run when the simulation is stopped, and the round
+     * being run is finished after, but no more are run.
      */
-    public void testLoopingRounds() {
+    public void testLoopingRounds() throws InterruptedException {
     	assertEquals(0, biotope.round());   	
     	controller.loop();
 
     	while(biotope.round() < 40); // wait 40 rounds 
     	controller.stopSimulation();
-    	assertEquals(40, biotope.round());
+    	controller.waitForSimulation();
+    	int rounds = biotope.round();
+    	assertTrue(rounds >= 40);
+    	Thread.sleep(50);
+    	assertEquals(rounds, biotope.round());
     }
 }
@@ -260,6 +260,32 @@ public class BiotopeTest extends TestCase {
     	assertEquals(6, fi2.hitpoints());
     }
     
+    /**
+     * Tests that the payoffs of a meeting can be changed, also for a
+     * finch meeting nobody. A Samaritan and a Cheater meet, and a
+     * lonely Samaritan is placed far away from them.
+     */
+    public void testPayoffs () {
+        Biotope b = new Biotope(6, 6, 0.00, 20, 1, 0, 100, 100, 0, behaviors);
+        assertEquals(3, b.payoff(Action.CLEANING, Action.CLEANING));
+        assertEquals(0, b.payoff(Action.CLEANING, Action.IGNORING));
+        assertEquals(5, b.payoff(Action.IGNORING, Action.CLEANING));
+        assertEquals(1, b.payoff(Action.IGNORING, Action.IGNORING));
+
+        b.setPayoff(Action.CLEANING, Action.IGNORING, 2);
+        b.setPayoff(Action.IGNORING, Action.CLEANING, 7);
+        b.setPayoff(Action.IGNORING, Action.IGNORING, 4);
+        assertEquals(2, b.payoff(Action.CLEANING, Action.IGNORING));
+
+        b.putFinch(1, 1, new Samaritan());
+        b.putFinch(1, 2, new Cheater());
+        b.putFinch(4, 4, new Samaritan());
+        b.runRound();
+        assertEquals(3, b.getFinchAt(1, 1).hitpoints());
+        assertEquals(8, b.getFinchAt(1, 2).hitpoints());
+        assertEquals(5, b.getFinchAt(4, 4).hitpoints());
+    }
+    
     /**
      * Tests that finches which are dead by age are removed from the biotope,
      * and that the statistics are properly updated. This is tested by
@@ -447,4 +473,278 @@ public class BiotopeTest extends TestCase {
         assertTrue(biotope.behaviors().containsAll(behaviors));
         assertTrue(behaviors.containsAll(biotope.behaviors()));
     }
+
+    /**
+     * Test that two Biotopes with the same seed run the same
+     * simulation, also when their behaviors involve chance.
+     */
+    public void testSeed () {
+        behaviors.add(new RandomFinch());
+        behaviors.add(new ProbingTitForTat());
+        Biotope biotope1 = new Biotope(20, 20, 0.33, 12, 7, 2, 10, 13, 20, behaviors,
+                                       new SerialRoundEngine(), 42);
+        Biotope biotope2 = new Biotope(20, 20, 0.33, 12, 7, 2, 10, 13, 20, behaviors,
+                                       new SerialRoundEngine(), biotope1.seed());
+        for (int i = 0; i < 20; i++) {
+            assertSameWorld(biotope1, biotope2);
+            biotope1.runRound();
+            biotope2.runRound();
+        }
+        assertSameWorld(biotope1, biotope2);
+    }
+
+    /**
+     * Test that a finch forgets a neighbour that has been removed,
+     * so the next finch at the place, which has the same id, is not
+     * mistaken for it. A Grudger meets a Cheater, which is then
+     * replaced by a Samaritan.
+     */
+    public void testForgetRemovedNeighbour () {
+        behaviors.add(new Grudger());
+        Biotope biotope = new Biotope(4, 4, 0.0, 12, 7, 0, 100, 100, 0, behaviors);
+        biotope.putFinch(2, 2, new Grudger());
+        biotope.putFinch(2, 3, new Cheater());
+        biotope.runRound();
+
+        Behavior grudger = biotope.getFinchAt(2, 2).behavior();
+        assertEquals(Action.IGNORING, grudger.decide(biotope.getFinchAt(2, 3)));
+        int cheaterId = biotope.getFinchAt(2, 3).id();
+
+        biotope.takeFinch(2, 3);
+        biotope.putFinch(2, 3, new Samaritan());
+        assertEquals(cheaterId, biotope.getFinchAt(2, 3).id());
+        assertEquals(Action.CLEANING, grudger.decide(biotope.getFinchAt(2, 3)));
+    }
+
+    /**
+     * Test that the finches of a stateless behavior share one
+     * behavior object, and that the finches of other behaviors each
+     * get their own.
+     */
+    public void testSharedStatelessBehavior () {
+        Biotope biotope = new Biotope(4, 4, 0.0, 12, 7, 0, 100, 100, 0, behaviors);
+        biotope.putFinch(0, 0, new Samaritan());
+        biotope.putFinch(1, 1, new Samaritan());
+        biotope.putFinch(2, 2, new FlipFlopper());
+        biotope.putFinch(3, 3, new FlipFlopper());
+
+        assertSame(biotope.getFinchAt(0, 0).behavior(), biotope.getFinchAt(1, 1).behavior());
+        assertNotSame(biotope.getFinchAt(2, 2).behavior(), biotope.getFinchAt(3, 3).behavior());
+    }
+
+    /**
+     * Test that the places that get or lose a finch are reported as
+     * changed since the version before, and the others are not.
+     */
+    public void testChangedSince () {
+        Biotope biotope = new Biotope(4, 4, 0.0, 12, 7, 0, 100, 100, 0, behaviors);
+        int version = biotope.version();
+        biotope.putFinch(1, 1, new Samaritan());
+        assertTrue(biotope.version() > version);
+        assertTrue(biotope.changedSince(1, 1, version));
+        assertFalse(biotope.changedSince(2, 2, version));
+
+        version = biotope.version();
+        biotope.runRound();
+        assertFalse(biotope.changedSince(1, 1, version));
+        biotope.takeFinch(1, 1);
+        assertTrue(biotope.changedSince(1, 1, version));
+    }
+
+    /**
+     * Test that nextChangeSince visits the changed places in index
+     * order, also across chunks of places without changes.
+     */
+    public void testNextChangeSince () {
+        Biotope biotope = new Biotope(20, 20, 0.0, 12, 7, 0, 100, 100, 0, behaviors);
+        int version = biotope.version();
+        biotope.putFinch(15, 3, new Samaritan());
+        biotope.putFinch(0, 5, new Cheater());
+        biotope.putFinch(1, 2, new Samaritan());
+
+        List<Integer> changed = new ArrayList<Integer>();
+        for (int index = biotope.nextChangeSince(0, version); index >= 0;
+             index = biotope.nextChangeSince(index + 1, version))
+            changed.add(index);
+        assertEquals(Arrays.asList(5, 22, 303), changed);
+        assertEquals(-1, biotope.nextChangeSince(0, biotope.version()));
+    }
+
+    /**
+     * Test that behaviorIdAt gives the index of the behavior of the
+     * finch in behaviors(), and -1 for empty places.
+     */
+    public void testBehaviorIdAt () {
+        Biotope biotope = new Biotope(4, 4, 0.0, 12, 7, 0, 100, 100, 0, behaviors);
+        biotope.putFinch(1, 2, new Cheater());
+        assertEquals(biotope.behaviors().indexOf(new Cheater()), biotope.behaviorIdAt(1, 2));
+        assertEquals(-1, biotope.behaviorIdAt(2, 1));
+    }
+
+    /**
+     * A listener remembering the rounds it was notified in.
+     */
+    static class RoundListener implements BiotopeListener {
+        List<Integer> rounds = new ArrayList<Integer>();
+
+        public void biotopeChanged(BiotopeSnapshot snapshot) {
+            rounds.add(snapshot.round());
+        }
+    }
+
+    /**
+     * Test that listeners are notified of the rounds at their rates,
+     * and of changes made to finches no matter the rate, and that
+     * removed listeners are not notified.
+     */
+    public void testListenerRate () {
+        Biotope biotope = new Biotope(4, 4, 0.0, 12, 7, 0, 100, 100, 0, behaviors);
+        RoundListener everyRound = new RoundListener();
+        RoundListener everyThird = new RoundListener();
+        biotope.addListener(everyRound);
+        biotope.addListener(everyThird, 3, 0, null);
+        for (int i = 0; i < 7; i++)
+            biotope.runRound();
+        assertEquals(Arrays.asList(1, 2, 3, 4, 5, 6, 7), everyRound.rounds);
+        assertEquals(Arrays.asList(3, 6), everyThird.rounds);
+
+        biotope.putFinch(1, 1, new Samaritan());
+        assertEquals(Arrays.asList(3, 6, 7), everyThird.rounds);
+
+        biotope.removeListener(everyRound);
+        biotope.runRound();
+        assertEquals(Arrays.asList(1, 2, 3, 4, 5, 6, 7, 7), everyRound.rounds);
+    }
+
+    /**
+     * Test that an asynchronous listener is notified by tasks handed
+     * to its executor, and that no new task is handed over while the
+     * last one is waiting, the task handing over the latest round
+     * when it is done.
+     */
+    public void testAsynchronousListener () {
+        Biotope biotope = new Biotope(4, 4, 0.0, 12, 7, 0, 100, 100, 0, behaviors);
+        final List<Runnable> tasks = new ArrayList<Runnable>();
+        RoundListener listener = new RoundListener();
+        biotope.addListener(listener, 1, 0, new java.util.concurrent.Executor() {
+                public void execute(Runnable task) {
+                    tasks.add(task);
+                }
+            });
+        for (int i = 0; i < 5; i++)
+            biotope.runRound();
+        assertEquals(1, tasks.size());
+        assertTrue(listener.rounds.isEmpty());
+
+        tasks.remove(0).run();
+        assertEquals(Arrays.asList(1), listener.rounds);
+        assertEquals(1, tasks.size());
+        tasks.remove(0).run();
+        assertEquals(Arrays.asList(1, 5), listener.rounds);
+        assertTrue(tasks.isEmpty());
+
+        biotope.notifyListeners();
+        assertEquals(1, tasks.size());
+        tasks.remove(0).run();
+        assertEquals(Arrays.asList(1, 5, 5), listener.rounds);
+    }
+
+    /**
+     * Test that the snapshot shown to an asynchronous listener is not
+     * changed by the rounds run while it is shown.
+     */
+    public void testSnapshotNotChangedWhileShown () {
+        final Biotope biotope = new Biotope(10, 10, 0.5, 12, 7, 3, 10, 13, 20, behaviors);
+        final List<Runnable> tasks = new ArrayList<Runnable>();
+        final List<Integer> rounds = new ArrayList<Integer>();
+        biotope.addListener(new BiotopeListener() {
+                public void biotopeChanged(BiotopeSnapshot snapshot) {
+                    int round = snapshot.round();
+                    int[] ids = behaviorIds(snapshot);
+                    for (int i = 0; i < 3; i++)
+                        biotope.runRound();
+                    assertEquals(round, snapshot.round());
+                    assertTrue(Arrays.equals(ids, behaviorIds(snapshot)));
+                    rounds.add(round);
+                }
+            }, 1, 0, new java.util.concurrent.Executor() {
+                public void execute(Runnable task) {
+                    tasks.add(task);
+                }
+            });
+        biotope.runRound();
+        tasks.remove(0).run();
+        tasks.remove(0).run();
+        assertEquals(Arrays.asList(1, 4), rounds);
+    }
+
+    /**
+     * Return the behavior ids of the places of the snapshot.
+     */
+    static int[] behaviorIds (BiotopeSnapshot snapshot) {
+        int[] ids = new int[snapshot.width() * snapshot.height()];
+        for (int index = 0; index < ids.length; index++)
+            ids[index] = snapshot.behaviorId(index);
+        return ids;
+    }
+
+    /**
+     * Test that a snapshot copies the behaviors of the finches, and
+     * records the places changed since the listener was last shown
+     * one.
+     */
+    public void testSnapshotChanges () {
+        Biotope biotope = new Biotope(20, 20, 0.0, 12, 7, 0, 100, 100, 0, behaviors);
+        final List<BiotopeSnapshot> snapshots = new ArrayList<BiotopeSnapshot>();
+        final List<List<Integer>> changes = new ArrayList<List<Integer>>();
+        biotope.addListener(new BiotopeListener() {
+                public void biotopeChanged(BiotopeSnapshot snapshot) {
+                    snapshots.add(snapshot);
+                    List<Integer> changed = null;
+                    if (!snapshot.allChanged()) {
+                        changed = new ArrayList<Integer>();
+                        for (int i = 0; i < snapshot.changeCount(); i++)
+                            changed.add(snapshot.change(i));
+                    }
+                    changes.add(changed);
+                }
+            });
+        biotope.runRound();
+        assertNull(changes.get(0));
+
+        biotope.putFinch(15, 3, behaviors.get(1));
+        assertEquals(Arrays.asList(303), changes.get(1));
+        BiotopeSnapshot snapshot = snapshots.get(1);
+        assertEquals(1, snapshot.behaviorId(303));
+        assertEquals(-1, snapshot.behaviorId(302));
+        assertEquals(1, snapshot.statistics(behaviors.get(1))
+                     .getStatByElement(Statistics.StatisticsElement.POPULATION));
+
+        biotope.takeFinch(15, 3);
+        assertEquals(Arrays.asList(303), changes.get(2));
+        assertEquals(-1, snapshot.behaviorId(303));
+
+        biotope.runRound();
+        assertEquals(Arrays.asList(), changes.get(3));
+    }
+
+    /**
+     * Assert that the two Biotopes have finches of the same behavior,
+     * age and hit points in the same places.
+     */
+    static void assertSameWorld (Biotope biotope1, Biotope biotope2) {
+        Iterator<World<GalapagosFinch>.Place> places = biotope2.iterator();
+        for (World<GalapagosFinch>.Place place : biotope1) {
+            GalapagosFinch finch1 = place.getElement();
+            GalapagosFinch finch2 = places.next().getElement();
+            if (finch1 == null) {
+                assertNull(finch2);
+            } else {
+                assertNotNull(finch2);
+                assertEquals(finch1.behavior(), finch2.behavior());
+                assertEquals(finch1.age(), finch2.age());
+                assertEquals(finch1.hitpoints(), finch2.hitpoints());
+            }
+        }
+    }
 }
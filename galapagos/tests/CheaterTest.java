@@ -22,7 +22,7 @@ public class CheaterTest extends BehaviorTest {
         behavior.response(opponent, Action.IGNORING);
         assertEquals(behavior.decide(opponent), Action.IGNORING);
     }
-    
+
     public Behavior getBehavior() {
         return new Cheater();
     }
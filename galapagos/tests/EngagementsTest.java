@@ -0,0 +1,91 @@
+package galapagos.tests;
+
+import galapagos.biotope.*;
+import junit.framework.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Test that Engagements remembers engaged places until it is cleared,
+ * and that concurrent claims engage a place only once.
+ */
+public class EngagementsTest extends TestCase {
+
+    /**
+     * Test engaging places and clearing the engagements.
+     */
+    public void testEngageAndClear() {
+        Engagements engagements = new Engagements(10);
+        for (int i = 0; i < 10; i++)
+            assertFalse(engagements.isEngaged(i));
+        engagements.engage(3);
+        assertTrue(engagements.isEngaged(3));
+        assertFalse(engagements.isEngaged(4));
+        assertFalse(engagements.tryEngage(3));
+        assertTrue(engagements.tryEngage(4));
+        assertTrue(engagements.isEngaged(4));
+
+        engagements.clear();
+        for (int i = 0; i < 10; i++)
+            assertFalse(engagements.isEngaged(i));
+        assertTrue(engagements.tryEngage(3));
+    }
+
+    /**
+     * Test that claiming a pair engages neither place if one of them
+     * is engaged already.
+     */
+    public void testEngagePair() {
+        Engagements engagements = new Engagements(4);
+        engagements.engage(1);
+        assertFalse(engagements.tryEngage(0, 1));
+        assertFalse(engagements.isEngaged(0));
+        assertFalse(engagements.tryEngage(1, 2));
+        assertFalse(engagements.isEngaged(2));
+        assertTrue(engagements.tryEngage(2, 3));
+        assertTrue(engagements.isEngaged(2));
+        assertTrue(engagements.isEngaged(3));
+    }
+
+    /**
+     * Test that when threads race to claim pairs of a ring of places,
+     * no place is ever part of two claimed pairs.
+     */
+    public void testConcurrentClaims() throws Exception {
+        final int size = 1000;
+        final Engagements engagements = new Engagements(size);
+        final AtomicInteger[] claims = new AtomicInteger[size];
+        for (int i = 0; i < size; i++)
+            claims[i] = new AtomicInteger();
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            for (int round = 0; round < 20; round++) {
+                engagements.clear();
+                for (int i = 0; i < size; i++)
+                    claims[i].set(0);
+                Future<?>[] futures = new Future<?>[4];
+                for (int t = 0; t < futures.length; t++) {
+                    final int offset = t;
+                    futures[t] = executor.submit(new Runnable() {
+                            public void run() {
+                                for (int i = offset; i < size + offset; i++) {
+                                    int a = i % size, b = (i + 1) % size;
+                                    if (engagements.tryEngage(a, b)) {
+                                        claims[a].incrementAndGet();
+                                        claims[b].incrementAndGet();
+                                    }
+                                }
+                            }
+                        });
+                }
+                for (Future<?> future : futures)
+                    future.get();
+                for (int i = 0; i < size; i++)
+                    assertTrue(claims[i].get() <= 1);
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package galapagos.tests;
+
+import galapagos.behaviors.*;
+import junit.framework.*;
+import java.util.*;
+
+/**
+ * Test that IdMap stores, finds and removes values like a HashMap,
+ * also when ids collide and when it grows.
+ */
+public class IdMapTest extends TestCase {
+
+    /**
+     * Test storing, replacing and removing a single value.
+     */
+    public void testPutGetRemove() {
+        IdMap<String> map = new IdMap<String>();
+        assertNull(map.get(3));
+        assertNull(map.remove(3));
+        map.put(3, "three");
+        assertEquals("three", map.get(3));
+        map.put(3, "THREE");
+        assertEquals("THREE", map.get(3));
+        assertEquals(1, map.size());
+        assertEquals("THREE", map.remove(3));
+        assertNull(map.get(3));
+        assertEquals(0, map.size());
+    }
+
+    /**
+     * Test negative ids, which finches outside of a Biotope have.
+     */
+    public void testNegativeIds() {
+        IdMap<String> map = new IdMap<String>();
+        map.put(-1, "minus one");
+        map.put(0, "zero");
+        assertEquals("minus one", map.get(-1));
+        assertEquals("zero", map.get(0));
+    }
+
+    /**
+     * Test a long random sequence of operations against a HashMap,
+     * with ids from a small range, so that they collide and entries
+     * are shifted back on removal.
+     */
+    public void testAgainstHashMap() {
+        IdMap<Integer> map = new IdMap<Integer>();
+        Map<Integer, Integer> expected = new HashMap<Integer, Integer>();
+        SplittableRandom random = new SplittableRandom(11);
+        for (int i = 0; i < 20000; i++) {
+            int id = random.nextInt(200) - 50;
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(id), map.remove(id));
+            } else {
+                expected.put(id, i);
+                map.put(id, i);
+            }
+            assertEquals(expected.size(), map.size());
+        }
+        for (int id = -50; id < 150; id++)
+            assertEquals(expected.get(id), map.get(id));
+    }
+
+    /**
+     * Test that clearing the map forgets every id.
+     */
+    public void testClear() {
+        IdMap<String> map = new IdMap<String>();
+        for (int id = 0; id < 100; id++)
+            map.put(id, "value");
+        map.clear();
+        assertEquals(0, map.size());
+        for (int id = 0; id < 100; id++)
+            assertNull(map.get(id));
+    }
+}
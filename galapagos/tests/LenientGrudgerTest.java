@@ -45,6 +45,23 @@ public class LenientGrudgerTest extends BehaviorTest {
         }
     }
     
+    /**
+     * Tests that a blacklisted finch stays blacklisted when it
+     * ignores again, and is taken off the blacklist when the Lenient
+     * Grudger is told to forget it.
+     */
+    public void testForget() {
+        behavior.response(opponent, Action.IGNORING);
+        behavior.response(opponent, Action.IGNORING);
+        behavior.response(opponent, Action.IGNORING);
+        assertEquals(Action.IGNORING, behavior.decide(opponent));
+        
+        ((RememberingBehavior) behavior).forget(opponent.id());
+        assertEquals(Action.CLEANING, behavior.decide(opponent));
+        behavior.response(opponent, Action.IGNORING);
+        assertEquals(Action.CLEANING, behavior.decide(opponent));
+    }
+    
     public Behavior getBehavior() {
         return new LenientGrudger();
     }
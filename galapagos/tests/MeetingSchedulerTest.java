@@ -0,0 +1,150 @@
+package galapagos.tests;
+
+import galapagos.behaviors.*;
+import galapagos.biotope.*;
+import junit.framework.*;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Tests that the MeetingSchedulers let every finch meet at most one
+ * neighbour, and leave no two neighbouring finches without a
+ * meeting, and that the MatchingMeetingScheduler does not depend on
+ * the number of threads.
+ */
+public class MeetingSchedulerTest extends TestCase {
+    ArrayList<Behavior> behaviors;
+    ForkJoinPool pool;
+
+    /**
+     * A behavior counting the meetings of its finch.
+     */
+    static class Counter implements Behavior {
+        int meetings;
+
+        public String description() {
+            return "Counts its meetings.";
+        }
+
+        public Action decide(Finch finch) {
+            meetings++;
+            return Action.CLEANING;
+        }
+
+        public void response(Finch finch, Action action) {
+        }
+
+        public Behavior clone() {
+            return new Counter();
+        }
+
+        public String toString() {
+            return "Counter";
+        }
+
+        public boolean equals(Object obj) {
+            return obj instanceof Counter;
+        }
+
+        public int hashCode() {
+            return toString().hashCode();
+        }
+    }
+
+    public void setUp() {
+        behaviors = new ArrayList<Behavior>();
+        behaviors.add(new Counter());
+        pool = new ForkJoinPool(4);
+    }
+
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    private Biotope makeBiotope(long seed) {
+        return new Biotope(30, 30, 0.0, 100, 50, 0, 100, 100, 500, behaviors,
+                           new SerialRoundEngine(), seed);
+    }
+
+    /**
+     * Return the number of meetings of the finch at the place, or -1
+     * if there is no finch there.
+     */
+    private static int meetings(Biotope biotope, int x, int y) {
+        GalapagosFinch finch = biotope.getFinchAt(x, y);
+        return finch == null ? -1 : ((Counter) finch.behavior()).meetings;
+    }
+
+    /**
+     * Test that the scheduler makes a maximal matching: no finch
+     * meets twice, no two neighbouring finches both go without a
+     * meeting, and the meetings are counted.
+     */
+    private void assertMaximalMatching(MeetingScheduler scheduler) {
+        Biotope biotope = makeBiotope(3);
+        scheduler.makeMeetings(biotope);
+
+        int met = 0;
+        for (int x = 0; x < biotope.width(); x++)
+            for (int y = 0; y < biotope.height(); y++) {
+                int meetings = meetings(biotope, x, y);
+                assertTrue(meetings <= 1);
+                if (meetings == 1)
+                    met++;
+                if (meetings != 0)
+                    continue;
+                for (int dx = -1; dx <= 1; dx++)
+                    for (int dy = -1; dy <= 1; dy++) {
+                        int nx = (x + dx + biotope.width()) % biotope.width();
+                        int ny = (y + dy + biotope.height()) % biotope.height();
+                        if (nx != x || ny != y)
+                            assertTrue(meetings(biotope, nx, ny) != 0);
+                    }
+            }
+        assertTrue(met > 0);
+        assertEquals(met / 2, biotope.meetings());
+    }
+
+    /**
+     * Test the greedy scheduler.
+     */
+    public void testGreedy() {
+        assertMaximalMatching(new GreedyMeetingScheduler());
+    }
+
+    /**
+     * Test the matching scheduler, with blocks that do not divide the
+     * world evenly, and with a single block.
+     */
+    public void testMatching() {
+        assertMaximalMatching(new MatchingMeetingScheduler(pool, 77));
+        assertMaximalMatching(new MatchingMeetingScheduler(pool, 10000));
+    }
+
+    /**
+     * Test that the matching scheduler gives the same rounds with
+     * one thread as with four.
+     */
+    public void testDeterministic() {
+        behaviors.clear();
+        behaviors.add(new Samaritan());
+        behaviors.add(new Cheater());
+        behaviors.add(new Grudger());
+        behaviors.add(new RandomFinch());
+        ForkJoinPool single = new ForkJoinPool(1);
+        try {
+            Biotope biotope1 = new Biotope(40, 40, 0.33, 12, 7, 2, 10, 13, 100, behaviors,
+                                           new SerialRoundEngine(new MatchingMeetingScheduler(pool, 100)), 7);
+            Biotope biotope2 = new Biotope(40, 40, 0.33, 12, 7, 2, 10, 13, 100, behaviors,
+                                           new SerialRoundEngine(new MatchingMeetingScheduler(single, 100)), 7);
+            for (int i = 0; i < 20; i++) {
+                biotope1.runRound();
+                biotope2.runRound();
+                BiotopeTest.assertSameWorld(biotope1, biotope2);
+            }
+            assertEquals(biotope1.meetings(), biotope2.meetings());
+        } finally {
+            single.shutdown();
+        }
+    }
+}
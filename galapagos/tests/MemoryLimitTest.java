@@ -0,0 +1,166 @@
+package galapagos.tests;
+
+import galapagos.behaviors.*;
+import galapagos.biotope.*;
+import junit.framework.*;
+
+/**
+ * Test that a MemoryBehavior with a limited memory forgets the finch
+ * chosen by the eviction policy, and counts its evictions. A Grudger
+ * is used, as it remembers the finches that ignore it.
+ */
+public class MemoryLimitTest extends TestCase {
+    private Grudger grudger;
+    private Finch a, b, c, d;
+
+    public void setUp() {
+        grudger = new Grudger();
+        a = new GalapagosFinch(10, 10, 10, new Cheater());
+        b = new GalapagosFinch(10, 10, 10, new Cheater());
+        c = new GalapagosFinch(10, 10, 10, new Cheater());
+        d = new GalapagosFinch(10, 10, 10, new Cheater());
+    }
+
+    /**
+     * Make the Grudger remember the finch.
+     */
+    private void ignoredBy(Finch finch) {
+        grudger.response(finch, Action.IGNORING);
+    }
+
+    /**
+     * Return true if the Grudger remembers the finch.
+     */
+    private boolean remembers(Finch finch) {
+        return grudger.decide(finch) == Action.IGNORING;
+    }
+
+    /**
+     * Test that an unlimited memory forgets nobody.
+     */
+    public void testUnlimited() {
+        ignoredBy(a);
+        ignoredBy(b);
+        ignoredBy(c);
+        assertEquals(0, grudger.takeEvictions());
+        assertTrue(remembers(a) && remembers(b) && remembers(c));
+    }
+
+    /**
+     * Test that the least recently used finch is forgotten.
+     */
+    public void testLeastRecentlyUsed() {
+        grudger.limitMemory(new MemoryLimit(2, MemoryLimit.Eviction.LEAST_RECENTLY_USED));
+        ignoredBy(a);
+        ignoredBy(b);
+        grudger.decide(a);
+        ignoredBy(c);
+        assertEquals(1, grudger.takeEvictions());
+        assertEquals(0, grudger.takeEvictions());
+        assertFalse(remembers(b));
+        assertTrue(remembers(a));
+        assertTrue(remembers(c));
+    }
+
+    /**
+     * Test that the least frequently used finch is forgotten, and
+     * the oldest of those used equally often.
+     */
+    public void testLeastFrequentlyUsed() {
+        grudger.limitMemory(new MemoryLimit(2, MemoryLimit.Eviction.LEAST_FREQUENTLY_USED));
+        ignoredBy(a);
+        ignoredBy(b);
+        grudger.decide(b);
+        grudger.decide(b);
+        grudger.decide(a);
+        ignoredBy(c);
+        assertFalse(remembers(a));
+        ignoredBy(d);
+        assertFalse(remembers(c));
+        assertEquals(2, grudger.takeEvictions());
+        assertTrue(remembers(b));
+        assertTrue(remembers(d));
+    }
+
+    /**
+     * Test that the finch remembered first is forgotten, no matter
+     * how it has been used.
+     */
+    public void testOldest() {
+        grudger.limitMemory(new MemoryLimit(2, MemoryLimit.Eviction.OLDEST));
+        ignoredBy(a);
+        ignoredBy(b);
+        grudger.decide(a);
+        ignoredBy(a);
+        ignoredBy(c);
+        assertEquals(1, grudger.takeEvictions());
+        assertFalse(remembers(a));
+        assertTrue(remembers(b));
+        assertTrue(remembers(c));
+    }
+
+    /**
+     * Test that limiting a memory that is already too full makes room
+     * the next time a finch is remembered.
+     */
+    public void testLimitFullMemory() {
+        ignoredBy(a);
+        ignoredBy(b);
+        ignoredBy(c);
+        grudger.limitMemory(new MemoryLimit(1, MemoryLimit.Eviction.OLDEST));
+        ignoredBy(d);
+        assertEquals(3, grudger.takeEvictions());
+        assertTrue(remembers(d));
+    }
+
+    /**
+     * Test that an Analyzer counts a finch forgotten by both itself
+     * and its fallback Predictor once, and leaves the evictions of a
+     * shared Predictor to the Predictor.
+     */
+    public void testAnalyzer() {
+        Analyzer analyzer = new Analyzer();
+        analyzer.limitMemory(new MemoryLimit(2, MemoryLimit.Eviction.OLDEST));
+        for (Finch finch : new Finch[] { a, b, c }) {
+            analyzer.decide(finch);
+            analyzer.response(finch, Action.IGNORING);
+        }
+        assertEquals(1, analyzer.takeEvictions());
+        assertEquals(0, analyzer.takeEvictions());
+
+        Predictor predictor = new Predictor();
+        predictor.limitMemory(new MemoryLimit(1, MemoryLimit.Eviction.OLDEST));
+        Analyzer sharing = (Analyzer) new Analyzer().cloneSharing(predictor);
+        for (Finch finch : new Finch[] { a, b }) {
+            predictor.decide(finch);
+            predictor.response(finch, Action.IGNORING);
+        }
+        assertEquals(0, sharing.takeEvictions());
+        assertEquals(1, predictor.takeEvictions());
+    }
+
+    /**
+     * Test that the evictions of finches in a Biotope are counted in
+     * the statistics of their behavior. A Grudger which can only
+     * remember one finch has two ignoring neighbours.
+     */
+    public void testBiotopeStatistics() {
+        java.util.List<Behavior> behaviors = new java.util.ArrayList<Behavior>();
+        behaviors.add(new Grudger());
+        behaviors.add(new Cheater());
+        Biotope biotope = new Biotope(5, 5, 0.0, 1000, 1000, 0, 100, 100, 0, behaviors);
+        biotope.putFinch(2, 2, new Grudger());
+        biotope.putFinch(1, 2, new Cheater());
+        biotope.putFinch(3, 2, new Cheater());
+        biotope.setMemoryLimit(new Grudger(),
+                               new MemoryLimit(1, MemoryLimit.Eviction.LEAST_RECENTLY_USED));
+        assertNotNull(biotope.memoryLimit(new Grudger()));
+        assertNull(biotope.memoryLimit(new Cheater()));
+
+        for (int i = 0; i < 30; i++)
+            biotope.runRound();
+        Statistics stat = biotope.statistics(new Grudger());
+        assertTrue(stat.getEvictions() > 0);
+        assertEquals(0, biotope.statistics(new Cheater()).getEvictions());
+    }
+}
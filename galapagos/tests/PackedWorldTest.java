@@ -0,0 +1,141 @@
+package galapagos.tests;
+
+import galapagos.behaviors.*;
+import galapagos.biotope.*;
+import junit.framework.*;
+import java.util.*;
+
+/**
+ * Tests that PackedWorld keeps the state of its finches in its arrays,
+ * and that the Place and GalapagosFinch views of the arrays behave
+ * like the objects they replace.
+ */
+public class PackedWorldTest extends TestCase {
+    PackedWorld world;
+    Behavior samaritan, cheater;
+
+    public void setUp() {
+        samaritan = new Samaritan();
+        cheater = new Cheater();
+        List<Behavior> behaviors = new ArrayList<Behavior>();
+        behaviors.add(samaritan);
+        behaviors.add(cheater);
+        world = new PackedWorld(4, 3, 10, behaviors);
+    }
+
+    /**
+     * Test that a placed finch can be read through both the primitive
+     * queries and the views.
+     */
+    public void testPlace() {
+        int index = world.index(2, 1);
+        world.place(index, 1, cheater, 7, 5);
+
+        assertTrue(world.isOccupied(index));
+        assertEquals(1, world.behaviorId(index));
+        assertEquals(7, world.hitpoints(index));
+        assertEquals(0, world.age(index));
+        assertEquals(5, world.maxAge(index));
+
+        GalapagosFinch finch = world.getAt(2, 1).getElement();
+        assertNotNull(finch);
+        assertEquals(cheater, finch.behavior());
+        assertEquals(7, finch.hitpoints());
+        assertEquals(FinchStatus.ALIVE, finch.status());
+
+        // The same finch is always represented by the same object.
+        assertSame(finch, world.finchAt(index));
+    }
+
+    /**
+     * Test that an empty place has the behavior id -1, also after its
+     * finch has left.
+     */
+    public void testEmptyBehaviorId() {
+        int index = world.index(1, 2);
+        assertEquals(-1, world.behaviorId(index));
+        world.place(index, 0, samaritan, 5, 5);
+        world.remove(index);
+        assertEquals(-1, world.behaviorId(index));
+        assertFalse(world.isOccupied(index));
+    }
+
+    /**
+     * Test that changes made through the arrays are seen by the views,
+     * and the other way around.
+     */
+    public void testSharedState() {
+        int index = world.index(0, 0);
+        world.place(index, 0, samaritan, 7, 2);
+        GalapagosFinch finch = world.finchAt(index);
+
+        world.changeHitpoints(index, 2);
+        assertEquals(9, finch.hitpoints());
+
+        finch.changeHitpoints(5);
+        assertEquals(10, world.hitpoints(index));
+
+        world.makeOlder(index);
+        finch.makeOlder();
+        assertEquals(2, world.age(index));
+        assertEquals(FinchStatus.DEAD_AGE, finch.status());
+    }
+
+    /**
+     * Test that a finch which leaves the world keeps the state it had,
+     * and that the place is empty afterwards.
+     */
+    public void testRemove() {
+        int index = world.index(3, 2);
+        world.place(index, 0, samaritan, 3, 10);
+        GalapagosFinch finch = world.finchAt(index);
+        world.changeHitpoints(index, -3);
+
+        world.remove(index);
+
+        assertFalse(world.isOccupied(index));
+        assertNull(world.finchAt(index));
+        assertNull(world.getAt(3, 2).getElement());
+        assertEquals(0, finch.hitpoints());
+        assertEquals(FinchStatus.DEAD_TICKS, finch.status());
+
+        // A new finch at the same place is a different finch.
+        world.place(index, 1, cheater, 4, 10);
+        assertNotSame(finch, world.finchAt(index));
+        assertEquals(0, finch.hitpoints());
+    }
+
+    /**
+     * Test that setting the element of a place copies the finch's
+     * state into the world.
+     */
+    public void testSetElement() {
+        GalapagosFinch finch = new GalapagosFinch(6, 10, 8, new Cheater());
+        finch.makeOlder();
+        world.setAt(1, 1, finch);
+
+        int index = world.index(1, 1);
+        assertEquals(1, world.behaviorId(index));
+        assertEquals(6, world.hitpoints(index));
+        assertEquals(1, world.age(index));
+        assertEquals(8, world.maxAge(index));
+
+        world.getAt(1, 1).setElement(null);
+        assertFalse(world.isOccupied(index));
+    }
+
+    /**
+     * Test that the neighbour lists of the Place views are computed
+     * from the occupancy array.
+     */
+    public void testNeighbours() {
+        world.place(world.index(0, 0), 0, samaritan, 5, 5);
+        world.place(world.index(3, 2), 1, cheater, 5, 5);
+
+        World<GalapagosFinch>.Place place = world.getAt(0, 0);
+        List<World<GalapagosFinch>.Place> filled = place.filledNeighbours();
+        assertEquals(1, filled.size());
+        assertEquals(world.getAt(3, 2), filled.get(0));
+        assertEquals(7, place.emptyNeighbours().size());
+    }
+}
@@ -41,6 +41,31 @@ public class PredictorTest extends BehaviorTest {
         assertEquals(behavior.decide(opponent), Action.IGNORING);
     }
 
+    /**
+     * Test the transitions of the prediction not covered by testDecide:
+     * a weak clean prediction becomes strong on cleaning, and a weak
+     * ignore prediction becomes a strong clean one on cleaning.
+     */
+    public void testTransitions()
+    {
+        // Strong clean, then weak clean, then strong clean again.
+        behavior.response(opponent, Action.CLEANING);
+        behavior.response(opponent, Action.IGNORING);
+        behavior.response(opponent, Action.CLEANING);
+
+        // A single ignoring only weakens it.
+        behavior.response(opponent, Action.IGNORING);
+        assertEquals(Action.CLEANING, behavior.decide(opponent));
+
+        // Strong ignore, weak ignore, then strong clean.
+        behavior.response(opponent, Action.IGNORING);
+        behavior.response(opponent, Action.CLEANING);
+        behavior.response(opponent, Action.CLEANING);
+        assertEquals(Action.IGNORING, behavior.decide(opponent));
+        behavior.response(opponent, Action.IGNORING);
+        assertEquals(Action.CLEANING, behavior.decide(opponent));
+    }
+
     public Behavior getBehavior() {
         return new Predictor();
     }
@@ -2,19 +2,58 @@ package galapagos.tests;
 
 import galapagos.behaviors.*;
 import galapagos.biotope.*;
+import java.util.*;
 
 /**
- * Test of the Random behavior, the decide method is
- * left untested because of its random nature.
+ * Test of the Random behavior. As its decisions are random, we can
+ * only test that it makes both kinds of decision.
  */
 public class RandomFinchTest extends BehaviorTest {
 	/**
-	 * We cannot test the unpredictable
+	 * Test that the Random behavior both cleans and ignores when
+	 * given a seeded random generator.
 	 */
     public void testDecide() {
+        SplittableRandom random = new SplittableRandom(1);
+        Set<Action> actions = new HashSet<Action>();
+        for (int i = 0; i < 100; i++)
+            actions.add(((RandomBehavior) behavior).decide(opponent, random));
+        assertEquals(2, actions.size());
+    }
 
+    /**
+     * Test that two Random behaviors given generators with the same
+     * seed make the same decisions.
+     */
+    public void testSeeded() {
+        SplittableRandom random1 = new SplittableRandom(5);
+        SplittableRandom random2 = new SplittableRandom(5);
+        RandomBehavior other = new RandomFinch();
+        for (int i = 0; i < 50; i++)
+            assertEquals(((RandomBehavior) behavior).decide(opponent, random1),
+                         other.decide(opponent, random2));
     }
-    
+
+    /**
+     * Test that a Random behavior deciding without a generator draws
+     * from the one of the deciding thread, which differs between
+     * threads, so that one instance can be shared by finches deciding
+     * on several threads.
+     */
+    public void testFallbackPerThread() throws InterruptedException {
+        final SplittableRandom[] other = new SplittableRandom[1];
+        Thread thread = new Thread() {
+                public void run() {
+                    other[0] = RandomBehavior.Fallback.random();
+                }
+            };
+        thread.start();
+        thread.join();
+        assertSame(RandomBehavior.Fallback.random(), RandomBehavior.Fallback.random());
+        assertNotNull(other[0]);
+        assertNotSame(other[0], RandomBehavior.Fallback.random());
+    }
+
     public Behavior getBehavior() {
         return new RandomFinch();
     }
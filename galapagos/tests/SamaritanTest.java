@@ -21,7 +21,7 @@ public class SamaritanTest extends BehaviorTest {
         behavior.response(opponent, Action.IGNORING);
         assertEquals(behavior.decide(opponent), Action.CLEANING);
     }
-    
+
     public Behavior getBehavior() {
         return new Samaritan();
     }
@@ -0,0 +1,94 @@
+package galapagos.tests;
+
+import galapagos.behaviors.*;
+import galapagos.biotope.*;
+import junit.framework.*;
+import java.util.*;
+
+/**
+ * Test that the Schizophrenic chooses between all its personalities,
+ * and that personalities made when first chosen get the memory limit
+ * and share memory as the Schizophrenic says.
+ */
+public class SchizophrenicTest extends TestCase {
+    Finch opponent;
+    Finch opponent2;
+
+    public void setUp() {
+        opponent = new GalapagosFinch(10, 10, 100, new Cheater());
+        opponent2 = new GalapagosFinch(10, 10, 100, new Cheater());
+    }
+
+    /**
+     * Test that a seeded random generator makes the Schizophrenic use
+     * both of its personalities.
+     */
+    public void testChoice() {
+        List<Behavior> personalities = new ArrayList<Behavior>();
+        personalities.add(new Samaritan());
+        personalities.add(new Cheater());
+        Schizophrenic schizophrenic = new Schizophrenic("Moody", personalities);
+        SplittableRandom random = new SplittableRandom(1);
+        Set<Action> actions = new HashSet<Action>();
+        for (int i = 0; i < 100; i++)
+            actions.add(schizophrenic.decide(opponent, random));
+        assertEquals(2, actions.size());
+    }
+
+    /**
+     * Test that a personality made after the memory was limited is
+     * limited too.
+     */
+    public void testLimitBeforeChoice() {
+        List<Behavior> personalities = new ArrayList<Behavior>();
+        personalities.add(new Grudger());
+        Behavior schizophrenic = new Schizophrenic("Grudging", personalities).clone();
+        ((RememberingBehavior) schizophrenic).limitMemory(
+            new MemoryLimit(1, MemoryLimit.Eviction.OLDEST));
+
+        schizophrenic.decide(opponent);
+        schizophrenic.response(opponent, Action.IGNORING);
+        schizophrenic.decide(opponent2);
+        schizophrenic.response(opponent2, Action.IGNORING);
+        assertEquals(1, ((RememberingBehavior) schizophrenic).takeEvictions());
+        assertEquals(Action.CLEANING, schizophrenic.decide(opponent));
+    }
+
+    /**
+     * Test that with shared memory, an Analyzer personality falls
+     * back on what the Predictor personality has learned, and without
+     * it does not.
+     */
+    public void testSharedMemory() {
+        List<Behavior> personalities = new ArrayList<Behavior>();
+        personalities.add(new Predictor());
+        personalities.add(new Analyzer());
+        Schizophrenic shared = new Schizophrenic("Shared", personalities, true);
+        Schizophrenic separate = new Schizophrenic("Separate", personalities, false);
+        assertTrue(((Schizophrenic) shared.clone()).hasSharedMemory());
+        assertFalse(((Schizophrenic) separate.clone()).hasSharedMemory());
+
+        assertEquals(Action.IGNORING, learnAndAsk(shared));
+        assertEquals(Action.CLEANING, learnAndAsk(separate));
+    }
+
+    /**
+     * Let the Predictor personality see the opponent ignore, and then
+     * return what the Analyzer personality decides, the random
+     * generators being found by trying seeds.
+     */
+    private Action learnAndAsk(Schizophrenic schizophrenic) {
+        schizophrenic.decide(opponent, randomChoosing(0));
+        schizophrenic.response(opponent, Action.IGNORING);
+        return schizophrenic.decide(opponent, randomChoosing(1));
+    }
+
+    /**
+     * Return a random generator whose first nextInt(2) is the choice.
+     */
+    private static SplittableRandom randomChoosing(int choice) {
+        for (long seed = 0; ; seed++)
+            if (new SplittableRandom(seed).nextInt(2) == choice)
+                return new SplittableRandom(seed);
+    }
+}
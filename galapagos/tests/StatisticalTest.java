@@ -58,6 +58,37 @@ public class StatisticalTest extends BehaviorTest {
     	
     }
 
+    /**
+     * Test that a Statistical meeting many finches, so that its memory
+     * grows and moves the data of the finches, decides as a
+     * Statistical meeting each finch alone, and that a forgotten
+     * finch is met as a new one.
+     */
+    public void testManyOpponents()
+    {
+        java.util.SplittableRandom random = new java.util.SplittableRandom(3);
+        Finch[] opponents = new Finch[50];
+        Statistical[] alone = new Statistical[opponents.length];
+        for (int i = 0; i < opponents.length; i++) {
+            opponents[i] = new GalapagosFinch(10, 10, 100, new Samaritan());
+            alone[i] = new Statistical();
+        }
+        for (int round = 0; round < 20; round++)
+            for (int i = 0; i < opponents.length; i++) {
+                assertEquals(alone[i].decide(opponents[i]), behavior.decide(opponents[i]));
+                Action action = random.nextInt(3) == 0 ? Action.CLEANING : Action.IGNORING;
+                alone[i].response(opponents[i], action);
+                behavior.response(opponents[i], action);
+            }
+        for (int i = 0; i < opponents.length; i += 2)
+            ((Statistical) behavior).forget(opponents[i].id());
+        for (int i = 0; i < opponents.length; i++)
+            if (i % 2 == 0)
+                assertEquals(Action.CLEANING, behavior.decide(opponents[i]));
+            else
+                assertEquals(alone[i].decide(opponents[i]), behavior.decide(opponents[i]));
+    }
+
     public Behavior getBehavior() {
         return new Statistical();
     }
@@ -98,6 +98,24 @@ public class StatisticsTest extends TestCase {
 		elementTest(statistics);
 	}
 	
+	/**
+	 * Tests the addEvictions() of Statistics, and that newRound
+	 * resets the evictions of the round.
+	 */
+	public void testAddEvictions () {
+		statistics.addEvictions(3);
+		statistics.addEvictions(2);
+		assertEquals(5, statistics.getEvictions());
+		assertEquals(5, statistics.getEvictionsThisRound());
+		assertEquals(0, statistics.getPopulation());
+		elementTest(statistics);
+		
+		statistics.newRound();
+		assertEquals(5, statistics.getEvictions());
+		assertEquals(0, statistics.getEvictionsThisRound());
+		elementTest(statistics);
+	}
+	
 	/**
 	 * Tests that newRound resets the round-specific values.
 	 */
@@ -147,5 +165,9 @@ public class StatisticsTest extends TestCase {
 				statistics.getStatByElement(Statistics.StatisticsElement.DEAD_TICKS_TOTAL));
 		assertEquals(statistics.getDeadByAge(),
 				statistics.getStatByElement(Statistics.StatisticsElement.DEAD_AGE_TOTAL));
+		assertEquals(statistics.getEvictionsThisRound(),
+				statistics.getStatByElement(Statistics.StatisticsElement.EVICTIONS_THIS_ROUND));
+		assertEquals(statistics.getEvictions(),
+				statistics.getStatByElement(Statistics.StatisticsElement.EVICTIONS_TOTAL));
 	}
 }
\ No newline at end of file
@@ -0,0 +1,174 @@
+package galapagos.tests;
+
+import galapagos.behaviors.*;
+import galapagos.biotope.*;
+import junit.framework.*;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Tests that a Biotope run by a TiledRoundEngine keeps its world and
+ * its statistics consistent, with tiles of several sizes and worlds
+ * that do not divide evenly into tiles, and that its populations are
+ * equivalent to those of a serial run.
+ */
+public class TiledRoundEngineTest extends TestCase {
+    ArrayList<Behavior> behaviors;
+    ForkJoinPool pool;
+
+    public void setUp() {
+        behaviors = new ArrayList<Behavior>();
+        behaviors.add(new Samaritan());
+        behaviors.add(new Cheater());
+        behaviors.add(new Grudger());
+        behaviors.add(new TitForTat());
+        pool = new ForkJoinPool(4);
+    }
+
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    /**
+     * Run a number of rounds and test that the population in the
+     * statistics matches the finches in the world after each round.
+     */
+    private void runAndCheck(Biotope biotope, int rounds) {
+        for (int i = 0; i < rounds; i++) {
+            biotope.runRound();
+            assertEquals(i + 1, biotope.round());
+
+            Map<Behavior, Integer> counter = new HashMap<Behavior, Integer>();
+            for (Behavior b : behaviors)
+                counter.put(b, 0);
+            for (World<GalapagosFinch>.Place place : biotope) {
+                GalapagosFinch finch = place.getElement();
+                if (finch != null) {
+                    assertEquals(FinchStatus.ALIVE, finch.status());
+                    counter.put(finch.behavior(), counter.get(finch.behavior()) + 1);
+                }
+            }
+            for (Behavior b : behaviors)
+                assertEquals((int) counter.get(b), biotope.statistics(b).getPopulation());
+        }
+    }
+
+    /**
+     * Test a world split into an even number of tiles along both axes.
+     */
+    public void testEvenTiles() {
+        Biotope biotope = new Biotope(40, 40, 0.5, 10, 7, 1, 10, 13, 100, behaviors,
+                                      new TiledRoundEngine(pool, 10));
+        runAndCheck(biotope, 20);
+    }
+
+    /**
+     * Test a world split into an odd number of uneven tiles.
+     */
+    public void testOddTiles() {
+        Biotope biotope = new Biotope(31, 17, 0.5, 10, 7, 1, 10, 13, 50, behaviors,
+                                      new TiledRoundEngine(pool, 5));
+        runAndCheck(biotope, 20);
+    }
+
+    /**
+     * Test a world smaller than a single tile.
+     */
+    public void testSingleTile() {
+        Biotope biotope = new Biotope(5, 3, 0.5, 10, 7, 1, 10, 13, 2, behaviors,
+                                      new TiledRoundEngine(pool, 64));
+        runAndCheck(biotope, 20);
+    }
+
+    /**
+     * Test that born and dead finches are counted, so that the
+     * population equals the initial population plus the born finches
+     * minus the dead ones.
+     */
+    public void testStatistics() {
+        Biotope biotope = new Biotope(20, 20, 1.0, 10, 7, 3, 3, 3, 20, behaviors,
+                                      new TiledRoundEngine(pool, 4));
+        runAndCheck(biotope, 10);
+        for (Behavior b : behaviors) {
+            Statistics stat = biotope.statistics(b);
+            assertTrue(stat.getBorn() > 0);
+            assertEquals(20 + stat.getBorn() - stat.getDeadByAge() - stat.getDeadByTicks(),
+                         stat.getPopulation());
+        }
+    }
+
+    /**
+     * Test that every finch takes part in at most one meeting per
+     * round: a lone pair of Samaritans gains exactly the value of a
+     * single mutual cleaning.
+     */
+    public void testSingleMeeting() {
+        Biotope biotope = new Biotope(8, 8, 0.0, 10, 5, 0, 100, 100, 0, behaviors,
+                                      new TiledRoundEngine(pool, 2));
+        Behavior samaritan = behaviors.get(0);
+        biotope.putFinch(3, 3, samaritan);
+        biotope.putFinch(4, 4, samaritan);
+        biotope.runRound();
+        assertEquals(8, biotope.getFinchAt(3, 3).hitpoints());
+        assertEquals(8, biotope.getFinchAt(4, 4).hitpoints());
+    }
+
+    /**
+     * Test that a seeded Biotope runs the same simulation whether its
+     * tiles are run by one thread or by several.
+     */
+    public void testDeterministic() {
+        behaviors.add(new RandomFinch());
+        ForkJoinPool single = new ForkJoinPool(1);
+        try {
+            Biotope biotope1 = new Biotope(30, 30, 0.5, 10, 7, 1, 10, 13, 30, behaviors,
+                                           new TiledRoundEngine(pool, 3), 7);
+            Biotope biotope2 = new Biotope(30, 30, 0.5, 10, 7, 1, 10, 13, 30, behaviors,
+                                           new TiledRoundEngine(single, 3), 7);
+            for (int i = 0; i < 20; i++) {
+                biotope1.runRound();
+                biotope2.runRound();
+                BiotopeTest.assertSameWorld(biotope1, biotope2);
+            }
+        } finally {
+            single.shutdown();
+        }
+    }
+
+    /**
+     * Test that the populations of a tiled run are equivalent to
+     * those of a serial run: over a number of seeds, the mean
+     * population of each behavior after some rounds differs by less
+     * than four standard errors between the two engines. The worlds
+     * themselves differ, as the places are visited in another order.
+     */
+    public void testSerialEquivalence() {
+        int seeds = 40;
+        int count = behaviors.size();
+        double[][] sums = new double[2][count];
+        double[][] squares = new double[2][count];
+        for (int seed = 1; seed <= seeds; seed++)
+            for (int engine = 0; engine < 2; engine++) {
+                Biotope biotope = new Biotope(30, 30, 1.0 / 3.0, 12, 7, 3, 10, 13, 75, behaviors,
+                                              engine == 0 ? new SerialRoundEngine()
+                                              : new TiledRoundEngine(pool, 3), seed);
+                for (int i = 0; i < 30; i++)
+                    biotope.runRound();
+                for (int b = 0; b < count; b++) {
+                    int population = biotope.statistics(behaviors.get(b)).getPopulation();
+                    sums[engine][b] += population;
+                    squares[engine][b] += (double) population * population;
+                }
+            }
+        for (int b = 0; b < count; b++) {
+            double variance = 0;
+            for (int engine = 0; engine < 2; engine++) {
+                double mean = sums[engine][b] / seeds;
+                variance += (squares[engine][b] / seeds - mean * mean) / (seeds - 1);
+            }
+            double difference = (sums[1][b] - sums[0][b]) / seeds;
+            assertTrue(behaviors.get(b) + " differs by " + difference,
+                       Math.abs(difference) < 4 * Math.sqrt(variance));
+        }
+    }
+}
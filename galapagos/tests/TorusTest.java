@@ -0,0 +1,70 @@
+package galapagos.tests;
+
+import galapagos.biotope.*;
+import junit.framework.*;
+
+/**
+ * Test that Torus wraps coordinates like the modulo arithmetic of the
+ * torus would, and that its neighbours are right at the edges.
+ */
+public class TorusTest extends TestCase {
+
+    /**
+     * Test wrapping of values near the edges and far away from them.
+     */
+    public void testWrap() {
+        for (int max = 1; max < 7; max++)
+            for (int value = -50; value < 50; value++)
+                assertEquals(((value % max) + max) % max, Torus.wrap(max, value));
+        assertEquals(2, Torus.wrap(5, Integer.MAX_VALUE));
+        assertEquals(2, Torus.wrap(5, Integer.MIN_VALUE));
+    }
+
+    /**
+     * Test that the left, right, up and down tables agree with
+     * wrapping the coordinates.
+     */
+    public void testTables() {
+        Torus torus = new Torus(4, 3);
+        for (int x = 0; x < 4; x++)
+            for (int y = 0; y < 3; y++) {
+                int index = torus.wrappedIndex(x, y);
+                assertEquals(torus.wrappedIndex(x - 1, y), torus.left(index));
+                assertEquals(torus.wrappedIndex(x + 1, y), torus.right(index));
+                assertEquals(torus.wrappedIndex(x, y - 1), torus.up(index));
+                assertEquals(torus.wrappedIndex(x, y + 1), torus.down(index));
+            }
+    }
+
+    /**
+     * Test that the neighbours of every place are the places around
+     * it, in the order the column to the left from the top, above,
+     * below, and the column to the right from the top.
+     */
+    public void testNeighbours() {
+        Torus torus = new Torus(4, 3);
+        int[] neighbours = new int[Torus.NEIGHBOURS];
+        for (int x = 0; x < 4; x++)
+            for (int y = 0; y < 3; y++) {
+                torus.neighbours(torus.wrappedIndex(x, y), neighbours);
+                int k = 0;
+                for (int dx = -1; dx <= 1; dx++)
+                    for (int dy = -1; dy <= 1; dy++)
+                        if (dx != 0 || dy != 0)
+                            assertEquals(torus.wrappedIndex(x + dx, y + dy), neighbours[k++]);
+            }
+    }
+
+    /**
+     * Test a torus a single place wide and high, where every place is
+     * its own neighbour.
+     */
+    public void testSinglePlace() {
+        Torus torus = new Torus(1, 1);
+        assertEquals(0, torus.left(0));
+        assertEquals(0, torus.right(0));
+        assertEquals(0, torus.up(0));
+        assertEquals(0, torus.down(0));
+        assertEquals(0, torus.wrapX(-3));
+    }
+}
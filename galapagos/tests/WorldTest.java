@@ -165,6 +165,47 @@ public class WorldTest extends TestCase {
         containsTheSame(found, list);
     }
     
+    /**
+     * Test that the buffer-based neighbour enumeration finds the same
+     * neighbours as the list-based one, and that it divides the
+     * neighbours into filled and empty ones.
+     */
+    public void testNeighbourBuffer() {
+        world.setAt(0, 0, 0);
+        world.setAt(2, 1, 7);
+        world.setAt(1, 1, 4);
+        SplittableRandom random = new SplittableRandom(3);
+        int[] buffer = new int[World.NEIGHBOURS];
+
+        int filled = world.filledNeighbours(world.index(0, 0), buffer, random);
+        assertEquals(2, filled);
+        List<Integer> found = new LinkedList<Integer>();
+        for (int i = 0; i < filled; i++)
+            found.add(buffer[i]);
+        list.add(world.index(2, 1));
+        list.add(world.index(1, 1));
+        containsTheSame(found, list);
+
+        assertEquals(6, world.emptyNeighbours(world.index(0, 0), buffer, random));
+        for (int i = 0; i < 6; i++)
+            assertNull(world.placeAt(buffer[i]).getElement());
+    }
+
+    /**
+     * Test that a place is never its own neighbour, even in a world
+     * so small that the neighbourhood wraps onto the place itself.
+     */
+    public void testNeighboursInNarrowWorld() {
+        World<Integer> narrow = new World<Integer>(1, 2);
+        narrow.setAt(0, 0, 0);
+        narrow.setAt(0, 1, 1);
+        int[] buffer = new int[World.NEIGHBOURS];
+        int filled = narrow.filledNeighbours(0, buffer, new SplittableRandom());
+        for (int i = 0; i < filled; i++)
+            assertEquals(1, buffer[i]);
+        assertEquals(0, narrow.emptyNeighbours(0, buffer, new SplittableRandom()));
+    }
+
     /**
      * When there are no elements in the world, no neighbours should
      * be found.
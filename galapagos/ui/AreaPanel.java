@@ -16,7 +16,7 @@ import javax.swing.*;
  * the size of the World its presenting and how much space on
  * the screen the control is assigned. 
  */
-public class AreaPanel extends JPanel implements Observer {
+public class AreaPanel extends JPanel implements BiotopeListener {
     private int pixelSize;
     private int worldWidth;
     private int worldHeight;
@@ -29,6 +29,26 @@ public class AreaPanel extends JPanel implements Observer {
     
 	private Map<Behavior, Color> colorMap;
 	private Color background;
+
+    /**
+     * The number of world columns whose changes are sent to the image
+     * together, as the rectangle bounding the changed places. The
+     * places of the Biotope are indexed column by column, so a band
+     * of columns is a range of indices.
+     */
+    private static final int BAND_WIDTH = 16;
+
+    /**
+     * The Biotope last drawn, so that only the places changed since
+     * need to be drawn. null if the whole Biotope must be drawn.
+     */
+    private Biotope drawnBiotope;
+
+    /**
+     * The ARGB colors of the behaviors of the Biotope drawn, indexed
+     * by behavior id.
+     */
+    private int[] palette;
 	
 	/**
 	 * Create a new AreaPanel with BLACK background color.
@@ -52,10 +72,17 @@ public class AreaPanel extends JPanel implements Observer {
     		 && 0 <= y && y < worldHeight) :
     	"The coordinate must be inside the world known to AreaPanel.";
        
+        pixel(x, y, c.getRGB());
+    }
+
+    /**
+     * Color a pixel with an ARGB color, as pixel(x, y, Color).
+     */
+    private void pixel(int x, int y, int color) {
     	//Save the color in the pixels array at (x, y)
     	//is used to create the new pixelImage when the panel is resized.
-        pixels[y * worldWidth + x] = c.getRGB();
-        pixelImage(x, y, c.getRGB());
+        pixels[y * worldWidth + x] = color;
+        pixelImage(x, y, color);
     }
     
     /**
@@ -69,13 +96,12 @@ public class AreaPanel extends JPanel implements Observer {
      */
     private void pixelImage(int x, int y, int color) {
     	int pixelBase = y * pixelSize * pixelSize * worldWidth + x * pixelSize;
-        int pixel = 0;
+        int imageWidth = worldWidth * pixelSize;
 
-        for( int i = 0; i < pixelSize; ++i ) {
-            for( int j = 0; j < pixelSize; ++j ) {
-                pixel = pixelBase + j * worldWidth * pixelSize + i;
-                imagePixels[ pixel ] = color;
-            }
+        for( int j = 0; j < pixelSize; ++j ) {
+            int rowStart = pixelBase + j * imageWidth;
+            for( int i = 0; i < pixelSize; ++i )
+                imagePixels[ rowStart + i ] = color;
         }
     }
 
@@ -88,32 +114,78 @@ public class AreaPanel extends JPanel implements Observer {
     
     /**
      * Draws the Biotope to the screen when it changes.
-     * @require observableBiotope instanceof Biotope
      * @ensure That all finches are drawn to the screen.
      */
-    public void update(Observable observableBiotope, Object arg) {
-    	assert (observableBiotope instanceof Biotope) :
-    		"Can only observe Biotope's";
-    	Biotope biotope = (Biotope) observableBiotope;
-    	
-    	drawBiotope(biotope);
+    public void biotopeChanged(BiotopeSnapshot snapshot) {
+    	drawBiotope(snapshot);
     }
     
     /**
-     * Draws the specified biotope to the screen
-     * @param biotope The Biotope to draw.
+     * Draws the specified snapshot of a biotope to the screen. If the
+     * Biotope was also drawn last time, only the places recorded as
+     * changed in the snapshot are drawn, and only the rectangles
+     * bounding them are sent to the screen, a band of columns at a
+     * time. A snapshot of a Biotope of another size than the world of
+     * the panel is from a Biotope no longer shown, and is ignored.
+     * @param snapshot The snapshot of the Biotope to draw.
      */
-    public void drawBiotope(Biotope biotope) {
-        for (World<GalapagosFinch>.Place place : biotope) {
-            GalapagosFinch element = place.getElement();
-            if(element != null)
-                pixel(place.xPosition(), place.yPosition(), colorByBehavior(element.behavior()));
-            else
-                pixel(place.xPosition(), place.yPosition(), background);
+    public void drawBiotope(BiotopeSnapshot snapshot) {
+        if (snapshot.width() != worldWidth || snapshot.height() != worldHeight)
+            return;
+        boolean all = snapshot.biotope() != drawnBiotope || snapshot.allChanged();
+        if (snapshot.biotope() != drawnBiotope)
+            palette = palette(snapshot);
+        drawnBiotope = snapshot.biotope();
+        int backgroundColor = background.getRGB();
+
+        int count = all ? worldWidth * worldHeight : snapshot.changeCount();
+        int band = -1;
+        int left = 0, right = -1, top = 0, bottom = -1;
+        for (int i = 0; i < count; i++) {
+            int index = all ? i : snapshot.change(i);
+            int x = index / worldHeight;
+            int y = index - x * worldHeight;
+            if (x / BAND_WIDTH != band) {
+                sendRectangle(left, top, right, bottom);
+                band = x / BAND_WIDTH;
+                left = x;
+                right = x;
+                top = y;
+                bottom = y;
+            }
+            int behaviorId = snapshot.behaviorId(index);
+            pixel(x, y, behaviorId < 0 ? backgroundColor : palette[behaviorId]);
+            left = Math.min(left, x);
+            right = Math.max(right, x);
+            top = Math.min(top, y);
+            bottom = Math.max(bottom, y);
         }
-        refresh();
+        sendRectangle(left, top, right, bottom);
+    }
+
+    /**
+     * Send the pixels of the rectangle of world places to the screen,
+     * unless it is empty.
+     */
+    private void sendRectangle(int left, int top, int right, int bottom) {
+        if (right >= left && bottom >= top)
+            source.newPixels(left * pixelSize, top * pixelSize,
+                             (right - left + 1) * pixelSize,
+                             (bottom - top + 1) * pixelSize);
     }
     
+    /**
+     * Return the ARGB colors of the behaviors of the Biotope, indexed
+     * by behavior id.
+     */
+    private int[] palette(BiotopeSnapshot snapshot) {
+        java.util.List<Behavior> behaviors = snapshot.behaviors();
+        int[] palette = new int[behaviors.size()];
+        for (int behaviorId = 0; behaviorId < palette.length; behaviorId++)
+            palette[behaviorId] = colorByBehavior(behaviors.get(behaviorId)).getRGB();
+        return palette;
+    }
+
     /**
      * Get the color associated with a behavior.
      * @param behavior The behavior to look-up in the colorMap
@@ -139,6 +211,7 @@ public class AreaPanel extends JPanel implements Observer {
         this.worldWidth = worldWidth;
         this.worldHeight = worldHeight;
         pixels = new int[worldWidth * worldHeight];
+        drawnBiotope = null;
 
         reset(worldSizeChanged);
     }
@@ -177,7 +250,7 @@ public class AreaPanel extends JPanel implements Observer {
 	                                        imageWidth );
 	        
 	        source.setAnimated( true );
-	        source.setFullBufferUpdates( true );
+	        source.setFullBufferUpdates( false );
 	        if(image != null)
 	            image.flush();
 	        image = createImage( source );        
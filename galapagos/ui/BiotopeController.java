@@ -4,7 +4,7 @@ import galapagos.biotope.*;
 
 import java.awt.event.*;
 import java.util.*;
-import javax.swing.Timer;
+import java.util.concurrent.*;
 import javax.swing.event.*;
 import javax.swing.JSpinner;
 
@@ -14,12 +14,30 @@ import javax.swing.JSpinner;
  * object without calling methods on the Biotope object explicitly. It
  * is designed to be used in conjunction with a graphical user
  * interface or similar.
+ *
+ * The Biotope is run and changed by a simulation thread of the
+ * controller, which carries out the commands given to the controller
+ * in the order they are given: batches of rounds, single rounds, and
+ * finches put in the world or taken from it. The methods of the
+ * controller just hand the commands over, so the user interface never
+ * waits for a round, and sees the Biotope through the snapshots shown
+ * to its listeners, see Biotope.addListener. A batch of rounds hands
+ * its rounds over one at a time, so the commands given during a batch
+ * are carried out between its rounds. The listeners of the Biotope
+ * are notified at the rates they were added with, and all of them are
+ * notified when a batch ends.
  */
 public class BiotopeController implements ActionListener, ChangeListener {
     private Biotope biotope;
-    private final Timer roundTimer;
-    private int roundsToGo;
-    private boolean unlimited;
+    private final ScheduledExecutorService simulation;
+
+    /**
+     * The number of the latest batch of rounds started. A batch only
+     * runs rounds while it is the latest one, so starting or stopping
+     * a batch stops the one running.
+     */
+    private volatile int batch;
+    private volatile int delay;
     private int numberOfRounds;
     private int manipulationRadius;
     
@@ -29,25 +47,16 @@ public class BiotopeController implements ActionListener, ChangeListener {
      */
     public BiotopeController (Biotope biotope) {
         this.biotope = biotope;
-        roundTimer = new Timer(0, new ActionListener() {
-        	public void actionPerformed(ActionEvent event) {
-                    if (unlimited) {
-                	BiotopeController.this.biotope.runRound();
-                    } else {
-                        if (roundsToGo > 0) {
-                            roundsToGo--;
-                            BiotopeController.this.biotope.runRound();
-                        }
-                    
-                        if (roundsToGo <= 0)
-                            roundTimer.stop();
-                    }
-        	}
-            });
-        roundTimer.stop();
-        roundsToGo = 0;
+        delay = 0;
         numberOfRounds = 0;
         manipulationRadius = 0;
+        simulation = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+                public Thread newThread(Runnable command) {
+                    Thread thread = new Thread(command, "Simulation");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
     }
     
     /**
@@ -82,9 +91,7 @@ public class BiotopeController implements ActionListener, ChangeListener {
      * @param rounds The number of rounds that will be executed.
      */
     public void runSeveralRounds(int rounds) {
-    	unlimited = false;
-    	roundsToGo = rounds;
-    	roundTimer.start();
+        startSimulation(rounds, false);
     }
     
     /**
@@ -93,26 +100,95 @@ public class BiotopeController implements ActionListener, ChangeListener {
      */
     public void nextRound() {
     	stopSimulation();
-        biotope.runRound();
+        final Biotope biotope = this.biotope;
+        simulation.execute(new Runnable() {
+                public void run() {
+                    biotope.runRoundUnobserved();
+                    biotope.notifyListeners();
+                }
+            });
     }
     
     /**
-     * Stop the currently running batch of rounds. If no batch-run is
-     * in progress, calling this method is a no-op.
+     * Stop the currently running batch of rounds. The round being
+     * run is finished, but no more rounds of the batch are run. If no
+     * batch-run is in progress, calling this method is a no-op.
      */
     public void stopSimulation() {
-        unlimited = false;
-        roundsToGo = 0;
-        roundTimer.stop();
+        batch++;
+    }
+
+    /**
+     * Wait until the simulation thread has carried out the commands
+     * given to the controller so far. A batch of rounds still running
+     * is not waited for to end.
+     */
+    public void waitForSimulation() throws InterruptedException {
+        try {
+            simulation.submit(new Runnable() {
+                    public void run() {
+                    }
+                }).get();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e);
+        }
     }
     
     /**
      * Run a potentially infinite amount of rounds until stopped.
      */
     public void loop() {
-    	unlimited = true;
-        roundsToGo = 0;
-        roundTimer.start();
+        startSimulation(0, true);
+    }
+
+    /**
+     * Start a batch of rounds on the simulation thread, stopping any
+     * batch already running.
+     *
+     * @param rounds The number of rounds to run, unless unlimited.
+     * @param unlimited If true, the rounds run until stopped.
+     */
+    private void startSimulation(int rounds, boolean unlimited) {
+        simulation.execute(new BatchRound(biotope, ++batch, rounds, unlimited));
+    }
+
+    /**
+     * A round of a batch, run by the simulation thread. When it is
+     * done, it hands the next round of the batch over after the
+     * delay, or notifies all the listeners of the Biotope if the
+     * batch has ended.
+     */
+    private class BatchRound implements Runnable {
+        private final Biotope biotope;
+        private final int number;
+        private final boolean unlimited;
+        private int rounds;
+
+        private BatchRound(Biotope biotope, int number, int rounds, boolean unlimited) {
+            this.biotope = biotope;
+            this.number = number;
+            this.rounds = rounds;
+            this.unlimited = unlimited;
+        }
+
+        /**
+         * Return true if the batch should run another round.
+         */
+        private boolean isRunning() {
+            return number == batch && (unlimited || rounds > 0);
+        }
+
+        public void run() {
+            if (isRunning()) {
+                biotope.runRound();
+                rounds--;
+                if (isRunning()) {
+                    simulation.schedule(this, delay, TimeUnit.MILLISECONDS);
+                    return;
+                }
+            }
+            biotope.notifyListeners();
+        }
     }
     
     /**
@@ -122,7 +198,7 @@ public class BiotopeController implements ActionListener, ChangeListener {
      * @param value The delay between rounds in milliseconds.
      */
     public void delay(int value) {
-    	roundTimer.setDelay(value);
+    	delay = value;
     }
 
     /**
@@ -155,6 +231,19 @@ public class BiotopeController implements ActionListener, ChangeListener {
             this.numberOfRounds = value;
     }
 
+    /**
+     * Apply the descriptors to the Biotope on the simulation thread,
+     * between the rounds of any batch running.
+     */
+    private void applyDescriptors(final List<Biotope.FinchDescriptor> descriptors) {
+        final Biotope biotope = this.biotope;
+        simulation.execute(new Runnable() {
+                public void run() {
+                    biotope.applyDescriptors(descriptors);
+                }
+            });
+    }
+
     /**
      * Interface used in lieu of true higher-order
      * functions. Subclasses are meant to be used for iterating over a
@@ -207,17 +296,16 @@ public class BiotopeController implements ActionListener, ChangeListener {
             : "Provided coordinate (" + centerX + ", " + centerY + ") lies outside the world.";
             
         final List<Biotope.FinchDescriptor> list = new LinkedList<Biotope.FinchDescriptor>();
+        final Torus torus = biotope.torus();
 
         forPointsInCircle(centerX, centerY, new pointFrobber() {
                 public void call(int x, int y) {
                     list.add(biotope.new 
-                             AddFinchDescriptor(World.wrap(biotope.width(), x),
-                                                World.wrap(biotope.height(), y),
-                                                b));
+                             AddFinchDescriptor(torus.wrapX(x), torus.wrapY(y), b));
                 }
             });
         
-        biotope.applyDescriptors(list);
+        applyDescriptors(list);
     }
 
     /**
@@ -237,15 +325,15 @@ public class BiotopeController implements ActionListener, ChangeListener {
             : "Provided coordinate (" + centerX + ", " + centerY + ") lies outside the world.";
         
         final List<Biotope.FinchDescriptor> list = new LinkedList<Biotope.FinchDescriptor>();
+        final Torus torus = biotope.torus();
 
         forPointsInCircle(centerX, centerY, new pointFrobber() {
                 public void call(int x, int y) {
                     list.add(biotope.new 
-                             RemoveFinchDescriptor(World.wrap(biotope.width(), x),
-                                                   World.wrap(biotope.height(), y)));
+                             RemoveFinchDescriptor(torus.wrapX(x), torus.wrapY(y)));
                 }
             });
 
-        biotope.applyDescriptors(list);
+        applyDescriptors(list);
     }
 }
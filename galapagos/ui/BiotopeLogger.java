@@ -3,13 +3,11 @@ package galapagos.ui;
 import galapagos.biotope.*;
 
 import java.util.List;
-import java.util.Observable;
-import java.util.Observer;
 
 /**
  * A BiotopeLogger prints (to System.out) a table containing statistics for the current round in a Biotope-simulation. 
  */
-public class BiotopeLogger implements Observer {
+public class BiotopeLogger implements BiotopeListener {
     //The number of columns in the output-table, computed by the number of StatisticElements
     private static final int COLUMNS;
     private static final char COLUMN_SEPERATOR = '|';
@@ -66,11 +64,9 @@ public class BiotopeLogger implements Observer {
     }
     
     /**
-     * Prints a table of round statistics from the last round in observableBiotope.
-     * @require <code>observableBiotope instanceof Biotope</code>
+     * Prints a table of round statistics from the last round in biotope.
      */
-    public void update(Observable observableBiotope, Object arg) {
-        Biotope biotope = (Biotope) observableBiotope;
+    public void biotopeChanged(BiotopeSnapshot biotope) {
         List<Behavior> behaviors = biotope.behaviors();
         Statistics.StatisticsElement[] statElements = Statistics.StatisticsElement.values();
 
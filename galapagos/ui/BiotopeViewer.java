@@ -4,6 +4,7 @@ import galapagos.biotope.*;
 
 import java.util.*;
 import java.util.List;
+import java.util.concurrent.Executor;
 
 import javax.swing.*;
 import javax.swing.event.*;
@@ -24,6 +25,20 @@ import java.awt.event.*;
  * 
  */
 public class BiotopeViewer extends JFrame {
+    /**
+     * The maximum number of times per second the views of the Biotope
+     * are notified of the rounds run.
+     */
+    public static final int FRAMES_PER_SECOND = 25;
+
+    /**
+     * Notifies the views of the Biotope on the event dispatch thread.
+     */
+    private static final Executor EVENT_DISPATCHER = new Executor() {
+            public void execute(Runnable task) {
+                SwingUtilities.invokeLater(task);
+            }
+        };
 
     private AreaPanel area;
     private Map<Behavior, Color> colorMap;
@@ -157,6 +172,13 @@ public class BiotopeViewer extends JFrame {
      * @param biotope The new biotope.
      */
     public void setBiotope(Biotope biotope) {
+        // The old Biotope may still be finishing a round, so its views
+        // are removed, not to be shown its state over the new one.
+        if (this.biotope != null) {
+            this.biotope.removeListener(statistics);
+            this.biotope.removeListener(logger);
+            this.biotope.removeListener(area);
+        }
     	this.biotope = biotope;
     	
         // Create RadioButtons and other widgets on the BiotopeViewer
@@ -187,19 +209,28 @@ public class BiotopeViewer extends JFrame {
         controller.setBiotope(biotope);
         area.changeWorld(biotope.width(), biotope.height());
         
-        biotope.addObserver(statistics);
+        addView(statistics);
         if (isLogging)
-            biotope.addObserver(logger);
+            addView(logger);
         
         if (isRefreshing)
-            biotope.addObserver(area);
+            addView(area);
         else
         	//redraw the initial stage of the Biotope even
             // when refreshing is disabled.
-        	area.drawBiotope(biotope);
+        	area.drawBiotope(new BiotopeSnapshot(biotope));
         
         
-        biotope.doNotifyObservers();
+        biotope.notifyListeners();
+    }
+
+    /**
+     * Add a view of the Biotope as a listener, notified on the event
+     * dispatch thread at most FRAMES_PER_SECOND times a second. Views
+     * that are still busy when the next rounds are run just skip them.
+     */
+    private void addView(BiotopeListener view) {
+        biotope.addListener(view, 1, 1000 / FRAMES_PER_SECOND, EVENT_DISPATCHER);
     }
     
     /**
@@ -260,9 +291,9 @@ public class BiotopeViewer extends JFrame {
         toggleLogging.addActionListener(new ActionListener () {
                 public void actionPerformed(ActionEvent e) {
                     if (isLogging)
-                        biotope.deleteObserver(logger);
+                        biotope.removeListener(logger);
                     else
-                        biotope.addObserver(logger);
+                        addView(logger);
                     isLogging = !isLogging;
                 }
             });
@@ -272,9 +303,9 @@ public class BiotopeViewer extends JFrame {
         toggleDisplayRefresh.addActionListener(new ActionListener () {
                 public void actionPerformed(ActionEvent e) {
                     if (isRefreshing)
-                        biotope.deleteObserver(BiotopeViewer.this.area);
+                        biotope.removeListener(BiotopeViewer.this.area);
                     else
-                        biotope.addObserver(BiotopeViewer.this.area);
+                        addView(BiotopeViewer.this.area);
                     isRefreshing = !isRefreshing;
                 }
             });
@@ -12,7 +12,7 @@ import javax.swing.*;
  * A Swing component that observes a Biotope object and prints
  * statistical information about it.
  */
-public class StatisticsPanel extends JPanel implements Observer {
+public class StatisticsPanel extends JPanel implements BiotopeListener {
     //The number of columns in the output-table, computed by the number of StatisticElements
     private static final int COLUMNS;
     
@@ -113,8 +113,7 @@ public class StatisticsPanel extends JPanel implements Observer {
     /**
      * @inheritDoc
      */
-    public void update(Observable observableBiotope, Object arg) {
-        Biotope biotope = (Biotope) observableBiotope;
+    public void biotopeChanged(BiotopeSnapshot biotope) {
         roundsLabel.setText(((Integer) biotope.round()).toString());
         
         List<Behavior> behaviors = biotope.behaviors();